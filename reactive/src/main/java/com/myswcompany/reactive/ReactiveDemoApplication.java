@@ -0,0 +1,13 @@
+package com.myswcompany.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveDemoApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveDemoApplication.class, args);
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.myswcompany.reactive.controllers;
+
+import com.myswcompany.reactive.models.SessionVersion;
+import com.myswcompany.reactive.models.TableFingerprint;
+
+// Strong entity tags built from the @Version column (single resources), a SessionVersion (a session with
+// its speakers) or from a TableFingerprint (list endpoints).
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(SessionVersion version) {
+        return "\"" + version.version() + "." + version.speakerCount() + "-" + version.maxSpeakerId() + "-"
+                + version.speakerVersionSum() + "\"";
+    }
+
+    // a list built from several tables (sessions with their speakers) gets one part per table
+    static String of(TableFingerprint... fingerprints) {
+        StringBuilder etag = new StringBuilder("\"");
+        for (TableFingerprint fingerprint : fingerprints) {
+            if (etag.length() > 1) {
+                etag.append('.');
+            }
+            etag.append(fingerprint.rowCount()).append('-').append(fingerprint.maxId()).append('-').append(fingerprint.versionSum());
+        }
+        return etag.append('"').toString();
+    }
+
+    // If-Match uses the strong comparison: "*" or one of the listed tags must equal the current tag.
+    // No header means no precondition.
+    static boolean matches(String ifMatch, String etag) {
+        if (ifMatch == null) {
+            return true;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
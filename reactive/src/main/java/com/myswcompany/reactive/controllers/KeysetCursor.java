@@ -0,0 +1,43 @@
+package com.myswcompany.reactive.controllers;
+
+import com.myswcompany.reactive.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque cursor for keyset (seek) pagination.
+// Holds the sort key and id of the last row of the previous page, so the next page is
+// fetched with "WHERE (sort_key, id) > (:sortKey, :id)" instead of an OFFSET scan.
+// The client only ever sees a base64url string, e.g. GET /api/v1/speakers?limit=50&cursor=MTIzOkFrdQ
+record KeysetCursor(String sortKey, Long id) {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    String encode() {
+        String raw = id + ":" + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetCursor decode(String cursor) throws InvalidCursorException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep < 1) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return new KeysetCursor(raw.substring(sep + 1), Long.valueOf(raw.substring(0, sep)));
+        } catch (IllegalArgumentException ex) {
+            // also covers NumberFormatException
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
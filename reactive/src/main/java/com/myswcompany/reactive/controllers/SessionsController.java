@@ -0,0 +1,191 @@
+package com.myswcompany.reactive.controllers;
+
+import com.myswcompany.reactive.exceptions.ContentNotAllowedException;
+import com.myswcompany.reactive.exceptions.InvalidCursorException;
+import com.myswcompany.reactive.exceptions.ResourceNotFoundException;
+import com.myswcompany.reactive.models.Session;
+import com.myswcompany.reactive.repositories.SessionRepository;
+import com.myswcompany.reactive.repositories.SpeakerRepository;
+import com.myswcompany.reactive.services.SessionSpeakers;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// /api/v1/sessions on WebFlux + R2DBC, same contract as com.myswcompany.demo.controllers.SessionsController.
+// Sessions are returned with their speakers, loaded by SessionSpeakers in batches.
+@RestController
+@RequestMapping("/api/v1")
+public class SessionsController {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Autowired
+    private SessionSpeakers sessionSpeakers;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    // Keyset paging, streaming and ETags work the same way as for speakers. The ETag covers both tables.
+    @GetMapping("/sessions")
+    public Mono<ResponseEntity<Flux<Session>>> listAllSessions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            ServerWebExchange exchange) throws InvalidCursorException
+    {
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        return Mono.zip(sessionRepository.fingerprint(), speakerRepository.fingerprint(), ETags::of).flatMap(etag -> {
+            if (exchange.checkNotModified(etag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Flux<Session>>build());
+            }
+            if (cursor == null && limit == null) {
+                return Mono.just(ResponseEntity.ok().eTag(etag).body(streamAll()));
+            }
+
+            int pageSize = KeysetCursor.pageSize(limit);
+            Flux<Session> page = after == null
+                    ? sessionRepository.findFirstPage(pageSize)
+                    : sessionRepository.findPageAfter(after.sortKey(), after.id(), pageSize);
+            return page.collectList().flatMap(sessions -> sessionSpeakers.withSpeakers(sessions).collectList()).map(sessions -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+                if (sessions.size() == pageSize) {
+                    Session last = sessions.get(sessions.size() - 1);
+                    response.header(KeysetCursor.NEXT_CURSOR_HEADER, new KeysetCursor(last.getSession_name(), last.getSession_id()).encode());
+                }
+                return response.body(Flux.fromIterable(sessions));
+            });
+        });
+    }
+
+    // Full export for sync jobs, one session per line (application/x-ndjson), streamed with backpressure
+    @GetMapping(value = "/sessions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Session> exportSessions()
+    {
+        return streamAll();
+    }
+
+    // All sessions in session_name order, read as keyset pages of SessionSpeakers.BATCH_SIZE: a page is read,
+    // its speakers are loaded and the next page is only queried when the client has taken the previous one.
+    // No query stays open while another one runs (see SessionSpeakers.withSpeakers).
+    private Flux<Session> streamAll()
+    {
+        return pageAfter(null)
+                .expand(page -> page.size() < SessionSpeakers.BATCH_SIZE ? Mono.empty() : pageAfter(page.get(page.size() - 1)))
+                .concatMap(sessionSpeakers::withSpeakers);
+    }
+
+    private Mono<List<Session>> pageAfter(Session last)
+    {
+        Flux<Session> page = last == null
+                ? sessionRepository.findFirstPage(SessionSpeakers.BATCH_SIZE)
+                : sessionRepository.findPageAfter(last.getSession_name(), last.getSession_id(), SessionSpeakers.BATCH_SIZE);
+        return page.collectList();
+    }
+
+    // ETag = version of the session and of its speakers (their names, titles and bios are part of the body),
+    // If-None-Match is answered with 304 without loading the session.
+    @GetMapping("/sessions/{id}")
+    public Mono<ResponseEntity<Session>> getSessionById(
+            @PathVariable(value = "id") Long id,
+            ServerWebExchange exchange)
+    {
+        return etag(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Session not found with this id: " + id)))
+                .flatMap(etag -> {
+                    if (exchange.checkNotModified(etag)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Session>build());
+                    }
+                    // read after the ETag, so the body is never older than the tag it is sent with
+                    return sessionSpeakers.withSpeakers(sessionRepository.findById(id))
+                            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Session not found with this id: " + id)))
+                            .map(session -> ResponseEntity.ok().eTag(etag).body(session));
+                });
+    }
+
+    // POST http://localhost:8081/api/v1/sessions
+    // {"session_name": "Spring Boot Session", "session_description": "", "session_length": 300, "speakers": [{"speaker_id": 1}]}
+    @PostMapping("/sessions")
+    public Mono<ResponseEntity<Session>> createSession(@Valid @RequestBody Session session)
+    {
+        if (session.getSession_name().startsWith("a")) {
+            return Mono.error(new ContentNotAllowedException("Session name starting with letter \"a\" is not allowed!!"));
+        }
+        return insert(session).flatMap(this::created);
+    }
+
+    // Only name, description and length are updated, the speakers of an existing session are left as they are.
+    // If-Match: <ETag of GET /sessions/{id}> makes the update conditional, a stale tag is answered with 412.
+    @PutMapping("/sessions/{id}")
+    public Mono<ResponseEntity<Session>> updateSession(
+            @PathVariable(value = "id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody Session session)
+    {
+        return sessionRepository.findById(id)
+                .zipWhen(sess -> etag(id))
+                .flatMap(current -> {
+                    Session sess = current.getT1();
+                    if (!ETags.matches(ifMatch, current.getT2())) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Session>build());
+                    }
+
+                    sess.setSession_name(session.getSession_name());
+                    sess.setSession_description(session.getSession_description());
+                    sess.setSession_length(session.getSession_length());
+
+                    return sessionSpeakers.withSpeakers(sessionRepository.save(sess))
+                            .flatMap(joo -> etag(id).map(etag -> ResponseEntity.ok().eTag(etag).body(joo)));
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    // If-Match can't match a session that doesn't exist (If-Match: * included)
+                    if (ifMatch != null) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+                    }
+                    return insert(session).flatMap(this::created);
+                }));
+    }
+
+    private Mono<ResponseEntity<Session>> created(Session created)
+    {
+        return etag(created.getSession_id()).map(etag -> ResponseEntity.status(HttpStatus.CREATED).eTag(etag).body(created));
+    }
+
+    private Mono<String> etag(Long id)
+    {
+        return sessionRepository.findVersionById(id).map(ETags::of);
+    }
+
+    // A posted session is always a new row with a generated id, its speakers are references by speaker_id.
+    // The session and its join rows are inserted in one transaction.
+    private Mono<Session> insert(Session session)
+    {
+        session.setSession_id(null);
+        session.setVersion(null);
+        return sessionRepository.save(session)
+                .flatMap(saved -> sessionSpeakers.link(saved.getSession_id(), session.getSpeakers()).thenReturn(saved))
+                .as(transactionalOperator::transactional)
+                .as(sessionSpeakers::withSpeakers);
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    public Mono<Void> deleteSession(@PathVariable Long id)
+    {
+        return sessionRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Session not found with this id: " + id)))
+                .flatMap(session -> sessionSpeakers.unlinkSession(id).then(sessionRepository.delete(session)))
+                .as(transactionalOperator::transactional);
+    }
+}
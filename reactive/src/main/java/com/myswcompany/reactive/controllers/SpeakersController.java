@@ -0,0 +1,186 @@
+package com.myswcompany.reactive.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
+import com.myswcompany.reactive.exceptions.InvalidCursorException;
+import com.myswcompany.reactive.exceptions.ResourceNotFoundException;
+import com.myswcompany.reactive.models.Speaker;
+import com.myswcompany.reactive.repositories.SpeakerRepository;
+import com.myswcompany.reactive.services.SessionSpeakers;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// /api/v1/speakers on WebFlux + R2DBC, same contract as com.myswcompany.demo.controllers.SpeakersController
+@RestController
+@RequestMapping("/api/v1")
+public class SpeakersController {
+
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Autowired
+    private SessionSpeakers sessionSpeakers;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Without cursor/limit the whole list is streamed: speakers are written as the rows arrive and
+    // demand of the response (socket buffer full, slow client) is passed back to the database driver.
+    // With cursor/limit a keyset page is returned, the cursor of the next page in X-Next-Cursor.
+    // The ETag is the fingerprint of the table, If-None-Match is answered with 304 without reading the list.
+    @GetMapping("/speakers")
+    public Mono<ResponseEntity<Flux<Speaker>>> listAllSpeakers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            ServerWebExchange exchange) throws InvalidCursorException
+    {
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        return speakerRepository.fingerprint().map(ETags::of).flatMap(etag -> {
+            if (exchange.checkNotModified(etag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Flux<Speaker>>build());
+            }
+            if (cursor == null && limit == null) {
+                return Mono.just(ResponseEntity.ok().eTag(etag).body(speakerRepository.findAllByOrderByFirstNameAsc()));
+            }
+
+            // the next cursor is a header, so a page (at most KeysetCursor.MAX_LIMIT rows) is read before responding
+            int pageSize = KeysetCursor.pageSize(limit);
+            Flux<Speaker> page = after == null
+                    ? speakerRepository.findFirstPage(pageSize)
+                    : speakerRepository.findPageAfter(after.sortKey(), after.id(), pageSize);
+            return page.collectList().map(speakers -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+                if (speakers.size() == pageSize) {
+                    Speaker last = speakers.get(speakers.size() - 1);
+                    response.header(KeysetCursor.NEXT_CURSOR_HEADER, new KeysetCursor(last.getFirst_name(), last.getSpeaker_id()).encode());
+                }
+                return response.body(Flux.fromIterable(speakers));
+            });
+        });
+    }
+
+    // Full export for sync jobs, one speaker per line (application/x-ndjson), streamed with backpressure
+    @GetMapping(value = "/speakers/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Speaker> exportSpeakers()
+    {
+        return speakerRepository.findAll();
+    }
+
+    // ETag = version of the speaker, If-None-Match is answered with 304 without loading the speaker.
+    @GetMapping("/speakers/{id}")
+    public Mono<ResponseEntity<Speaker>> getSpeakerById(
+            @PathVariable(value = "id") Long id,
+            ServerWebExchange exchange)
+    {
+        return speakerRepository.findVersionById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Speaker not found: " + id)))
+                .flatMap(version -> {
+                    if (exchange.checkNotModified(ETags.of(version))) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).<Speaker>build());
+                    }
+                    return speakerRepository.findById(id)
+                            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Speaker not found: " + id)))
+                            .map(speaker -> ResponseEntity.ok().eTag(ETags.of(speaker.getVersion())).body(speaker));
+                });
+    }
+
+    @PostMapping("/speakers")
+    public Mono<ResponseEntity<Speaker>> createSpeaker(@Valid @RequestBody Speaker speaker)
+    {
+        // always a new row with a generated id
+        speaker.setSpeaker_id(null);
+        speaker.setVersion(null);
+        return speakerRepository.save(speaker)
+                .map(saved -> ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(saved.getVersion())).body(saved));
+    }
+
+    // JSON Patch (RFC 6902), e.g. [{"op":"replace", "path":"/first_name", "value":"moi vaan"}]
+    // If-Match: "<version>" makes the update conditional, a stale version is answered with 412.
+    @PatchMapping(value = "/speakers/{id}", consumes = "application/json-patch+json")
+    public Mono<ResponseEntity<Speaker>> updateSpeaker(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonPatch patch)
+    {
+        return speakerRepository.findById(id)
+                .flatMap(currentSpeaker -> {
+                    if (!ETags.matches(ifMatch, ETags.of(currentSpeaker.getVersion()))) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Speaker>build());
+                    }
+                    try {
+                        JsonNode patched = patch.apply(objectMapper.convertValue(currentSpeaker, JsonNode.class));
+                        Speaker speaker = objectMapper.treeToValue(patched, Speaker.class);
+                        // version isn't part of the JSON and the id must not be patched away
+                        speaker.setSpeaker_id(id);
+                        speaker.setVersion(currentSpeaker.getVersion());
+                        return speakerRepository.save(speaker)
+                                .map(saved -> ResponseEntity.ok().eTag(ETags.of(saved.getVersion())).body(saved));
+                    } catch (JsonPatchException | JsonProcessingException ex) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<Speaker>build());
+                    }
+                })
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    // PUT replaces the speaker, or creates a new one (with a generated id) when there is no speaker with this id.
+    // If-Match: "<version>" makes the update conditional, a stale version is answered with 412.
+    @PutMapping(value = "/speakers/{id}")
+    public Mono<ResponseEntity<Speaker>> saveSpeaker(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody Speaker new_speaker)
+    {
+        return speakerRepository.findById(id)
+                .flatMap(speaker -> {
+                    if (!ETags.matches(ifMatch, ETags.of(speaker.getVersion()))) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Speaker>build());
+                    }
+
+                    speaker.setFirst_name(new_speaker.getFirst_name());
+                    speaker.setLast_name(new_speaker.getLast_name());
+                    speaker.setTitle(new_speaker.getTitle());
+                    speaker.setCompany(new_speaker.getCompany());
+                    speaker.setSpeaker_bio(new_speaker.getSpeaker_bio());
+
+                    return speakerRepository.save(speaker)
+                            .map(joo -> ResponseEntity.ok().eTag(ETags.of(joo.getVersion())).body(joo));
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    // If-Match can't match a speaker that doesn't exist (If-Match: * included)
+                    if (ifMatch != null) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+                    }
+
+                    new_speaker.setSpeaker_id(null);
+                    new_speaker.setVersion(null);
+                    return speakerRepository.save(new_speaker)
+                            .map(joo -> ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(joo.getVersion())).body(joo));
+                }));
+    }
+
+    // The join rows go first (no cascade in R2DBC), both deletes in one transaction
+    @DeleteMapping(value = "/speakers/{id}")
+    public Mono<ResponseEntity<Long>> delete(@PathVariable Long id)
+    {
+        return speakerRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Speaker not found with this id: " + id)))
+                .flatMap(speaker -> sessionSpeakers.unlinkSpeaker(id).then(speakerRepository.delete(speaker)))
+                .as(transactionalOperator::transactional)
+                .thenReturn(new ResponseEntity<>(id, HttpStatus.OK));
+    }
+}
@@ -0,0 +1,44 @@
+package com.myswcompany.reactive.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+public class ApiError {
+    private HttpStatus status;
+    private String msg;
+    private List<String> errors;
+
+    public ApiError(HttpStatus status, String message, List<String> errors) {
+        super();
+        this.status = status;
+        this.msg = message;
+        this.errors = errors;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(HttpStatus status) {
+        this.status = status;
+    }
+
+    public String getMsg() {
+        return msg;
+    }
+
+    public void setMsg(String msg) {
+        this.msg = msg;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+
+}
@@ -0,0 +1,78 @@
+package com.myswcompany.reactive.exceptions;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+// Same error bodies as the servlet application, so clients can't tell the two apart
+@RestControllerAdvice
+public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExceptionHandler
+{
+    // WebExchangeBindException –>
+    // the WebFlux counterpart of MethodArgumentNotValidException, thrown when a @Valid argument failed validation:
+    @Override
+    protected Mono<ResponseEntity<Object>> handleWebExchangeBindException(
+            WebExchangeBindException ex,
+            HttpHeaders headers,
+            HttpStatusCode status,
+            ServerWebExchange exchange) {
+
+        List<String> errors = new ArrayList<>();
+
+        for(FieldError error : ex.getBindingResult().getFieldErrors())
+        {
+            errors.add(error.getField() + ": " + error.getDefaultMessage());
+        }
+
+        Collections.sort(errors);
+
+        ApiError err = new ApiError(HttpStatus.BAD_REQUEST, "Validation error(s) occurred.", errors);
+        return handleExceptionInternal(ex, err, headers, err.getStatus(), exchange);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Object> handleResourceNotFoundException(ResourceNotFoundException ex, ServerWebExchange exchange)
+    {
+        return new ResponseEntity<>(details(ex.getMessage(), exchange), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(ContentNotAllowedException.class)
+    public ResponseEntity<Object> handleContentNotAllowedException(ContentNotAllowedException ex, ServerWebExchange exchange)
+    {
+        return new ResponseEntity<>(details(ex.getMessage(), exchange), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursorException(InvalidCursorException ex, ServerWebExchange exchange)
+    {
+        return new ResponseEntity<>(details(ex.getMessage(), exchange), HttpStatus.BAD_REQUEST);
+    }
+
+    // OptimisticLockingFailureException ->
+    // the @Version check of the update statement failed, someone else updated the row after it was read:
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, ServerWebExchange exchange)
+    {
+        return new ResponseEntity<>(details("Resource was modified concurrently, reload and retry.", exchange), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // "uri=/api/v1/speakers/5", like WebRequest.getDescription(false) of the servlet application
+    private static ErrorDetails details(String message, ServerWebExchange exchange)
+    {
+        return new ErrorDetails(new Date(), message, "uri=" + exchange.getRequest().getPath().value());
+    }
+}
@@ -0,0 +1,12 @@
+package com.myswcompany.reactive.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends Exception {
+    private static final long serialVersionUID = 1L;
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,95 @@
+package com.myswcompany.reactive.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.List;
+
+// Same row and same JSON as the JPA entity of the servlet application (com.myswcompany.demo.models.Session)
+@Table("sessions")
+public class Session {
+
+    @Id
+    @Column("session_id")
+    private Long sessionId;
+
+    @NotBlank
+    @Size(max = 80, message = "session name too long")
+    @Column("session_name")
+    private String sessionName;
+
+    @Size(max = 1024)
+    @Column("session_description")
+    private String sessionDescription;
+
+    @Min(5)
+    @Max(1000)
+    @Column("session_length")
+    private Integer sessionLength;
+
+    // optimistic locking, also the ETag of the session. Not part of the JSON body, sent as ETag header instead
+    @Version
+    @Column("version")
+    @JsonIgnore
+    private Long version;
+
+    // R2DBC has no associations: the session_speakers rows are read and written by SessionSpeakers
+    @Transient
+    private List<Speaker> speakers;
+
+    public List<Speaker> getSpeakers() {
+        return speakers;
+    }
+
+    public void setSpeakers(List<Speaker> speakers) {
+        this.speakers = speakers;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getSession_id() {
+        return sessionId;
+    }
+
+    public void setSession_id(Long session_id) {
+        this.sessionId = session_id;
+    }
+
+    public String getSession_name() {
+        return sessionName;
+    }
+
+    public void setSession_name(String session_name) {
+        this.sessionName = session_name;
+    }
+
+    public String getSession_description() {
+        return sessionDescription;
+    }
+
+    public void setSession_description(String session_description) {
+        this.sessionDescription = session_description;
+    }
+
+    public Integer getSession_length() {
+        return sessionLength;
+    }
+
+    public void setSession_length(Integer session_length) {
+        this.sessionLength = session_length;
+    }
+}
@@ -0,0 +1,7 @@
+package com.myswcompany.reactive.models;
+
+// Version of a session and row count, highest id and sum of versions of its speakers: the ETag of a single
+// session, whose body embeds the speakers. Updating a speaker increments its version, deleting one removes its
+// join rows; the speakers of an existing session are never replaced (PUT leaves them alone).
+public record SessionVersion(long version, long speakerCount, long maxSpeakerId, long speakerVersionSum) {
+}
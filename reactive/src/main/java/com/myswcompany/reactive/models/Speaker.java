@@ -0,0 +1,103 @@
+package com.myswcompany.reactive.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// Same row and same JSON as the JPA entity of the servlet application (com.myswcompany.demo.models.Speaker)
+@Table("speakers")
+public class Speaker {
+
+    // null on insert, the column default (nextval of speakers_speaker_id_seq) assigns it
+    @Id
+    @Column("speaker_id")
+    private Long speakerId;
+
+    @Column("first_name")
+    @Size(min = 2, max = 30, message = "Size of the first_name has to be between 2 - 30 characters")
+    @NotBlank
+    private String firstName;
+
+    @Size(min = 2, max = 30)
+    @NotBlank(message = "Last name is mandatory")
+    @Column("last_name")
+    private String lastName;
+
+    @Size(min = 2, max = 40)
+    @NotBlank
+    private String title;
+
+    @Size(min = 2, max = 50)
+    @NotBlank
+    private String company;
+
+    @Size(max = 2000)
+    @Column("speaker_bio")
+    private String speakerBio;
+
+    // optimistic locking, also the ETag of the speaker. Not part of the JSON body, sent as ETag header instead
+    @Version
+    @Column("version")
+    @JsonIgnore
+    private Long version;
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getSpeaker_id() {
+        return speakerId;
+    }
+
+    public void setSpeaker_id(Long speaker_id) {
+        this.speakerId = speaker_id;
+    }
+
+    public String getFirst_name() {
+        return firstName;
+    }
+
+    public void setFirst_name(String first_name) {
+        this.firstName = first_name;
+    }
+
+    public String getLast_name() {
+        return lastName;
+    }
+
+    public void setLast_name(String last_name) {
+        this.lastName = last_name;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getCompany() {
+        return company;
+    }
+
+    public void setCompany(String company) {
+        this.company = company;
+    }
+
+    public String getSpeaker_bio() {
+        return speakerBio;
+    }
+
+    public void setSpeaker_bio(String speaker_bio) {
+        this.speakerBio = speaker_bio;
+    }
+}
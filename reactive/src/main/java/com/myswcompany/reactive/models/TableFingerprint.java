@@ -0,0 +1,6 @@
+package com.myswcompany.reactive.models;
+
+// Row count, highest id and sum of versions of a table: changes with every insert, update and delete.
+// The ETag of the list endpoints.
+public record TableFingerprint(long rowCount, long maxId, long versionSum) {
+}
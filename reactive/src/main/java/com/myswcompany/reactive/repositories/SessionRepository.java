@@ -0,0 +1,29 @@
+package com.myswcompany.reactive.repositories;
+
+import com.myswcompany.reactive.models.Session;
+import com.myswcompany.reactive.models.SessionVersion;
+import com.myswcompany.reactive.models.TableFingerprint;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface SessionRepository extends R2dbcRepository<Session, Long> {
+
+    @Query("select * from sessions order by session_name, session_id limit :limit")
+    Flux<Session> findFirstPage(int limit);
+
+    @Query("select * from sessions where (session_name, session_id) > (:sessionName, :id) " +
+            "order by session_name, session_id limit :limit")
+    Flux<Session> findPageAfter(String sessionName, Long id, int limit);
+
+    @Query("select s.version, count(sp.speaker_id) as speaker_count, coalesce(max(sp.speaker_id), 0) as max_speaker_id, " +
+            "cast(coalesce(sum(sp.version), 0) as bigint) as speaker_version_sum from sessions s " +
+            "left join session_speakers ss on ss.session_id = s.session_id left join speakers sp on sp.speaker_id = ss.speaker_id " +
+            "where s.session_id = :id group by s.session_id, s.version")
+    Mono<SessionVersion> findVersionById(Long id);
+
+    @Query("select count(*) as row_count, coalesce(max(session_id), 0) as max_id, " +
+            "cast(coalesce(sum(version), 0) as bigint) as version_sum from sessions")
+    Mono<TableFingerprint> fingerprint();
+}
@@ -0,0 +1,29 @@
+package com.myswcompany.reactive.repositories;
+
+import com.myswcompany.reactive.models.Speaker;
+import com.myswcompany.reactive.models.TableFingerprint;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface SpeakerRepository extends R2dbcRepository<Speaker, Long> {
+
+    // rows are emitted as the driver reads them, a slow client slows the query down instead of filling the heap
+    Flux<Speaker> findAllByOrderByFirstNameAsc();
+
+    // Keyset pagination, same order and cursor as the servlet application
+    @Query("select * from speakers order by first_name, speaker_id limit :limit")
+    Flux<Speaker> findFirstPage(int limit);
+
+    @Query("select * from speakers where (first_name, speaker_id) > (:firstName, :id) " +
+            "order by first_name, speaker_id limit :limit")
+    Flux<Speaker> findPageAfter(String firstName, Long id, int limit);
+
+    @Query("select version from speakers where speaker_id = :id")
+    Mono<Long> findVersionById(Long id);
+
+    @Query("select count(*) as row_count, coalesce(max(speaker_id), 0) as max_id, " +
+            "cast(coalesce(sum(version), 0) as bigint) as version_sum from speakers")
+    Mono<TableFingerprint> fingerprint();
+}
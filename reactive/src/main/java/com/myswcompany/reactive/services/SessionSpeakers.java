@@ -0,0 +1,85 @@
+package com.myswcompany.reactive.services;
+
+import com.myswcompany.reactive.models.Session;
+import com.myswcompany.reactive.models.Speaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The session_speakers join table. R2DBC repositories don't map associations, so the speakers of a
+// session are read here with one query per batch of sessions (no N+1) and the rows are written by hand.
+@Service
+public class SessionSpeakers {
+
+    // sessions per "session_id in (...)" query, same as hibernate.default_batch_fetch_size of the servlet application
+    public static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private R2dbcConverter converter;
+
+    // Sets the speakers of every session, BATCH_SIZE sessions per query.
+    // The sessions must have been read completely: a query that is still streaming holds its connection, and
+    // waiting for another one for the speakers deadlocks as soon as every pooled connection is held that way.
+    public Flux<Session> withSpeakers(List<Session> sessions)
+    {
+        return Flux.fromIterable(sessions).buffer(BATCH_SIZE).concatMap(batch -> speakersOf(batch.stream().map(Session::getSession_id).toList())
+                .flatMapIterable(speakers -> {
+                    batch.forEach(session -> session.setSpeakers(speakers.getOrDefault(session.getSession_id(), new ArrayList<>())));
+                    return batch;
+                }));
+    }
+
+    public Mono<Session> withSpeakers(Mono<Session> session)
+    {
+        return session.flatMap(loaded -> withSpeakers(List.of(loaded)).next());
+    }
+
+    private Mono<Map<Long, List<Speaker>>> speakersOf(Collection<Long> sessionIds)
+    {
+        return databaseClient.sql("select ss.session_id as owner_id, s.* from session_speakers ss " +
+                        "join speakers s on s.speaker_id = ss.speaker_id where ss.session_id in (:ids)")
+                .bind("ids", sessionIds)
+                .map((row, metadata) -> Map.entry(row.get("owner_id", Long.class), converter.read(Speaker.class, row, metadata)))
+                .all()
+                .collect(HashMap::new, (speakers, entry) ->
+                        speakers.computeIfAbsent(entry.getKey(), id -> new ArrayList<>()).add(entry.getValue()));
+    }
+
+    // Speakers in a posted session are only references by speaker_id
+    public Mono<Void> link(Long sessionId, List<Speaker> speakers)
+    {
+        if (speakers == null || speakers.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(speakers)
+                .map(Speaker::getSpeaker_id)
+                .distinct()
+                .concatMap(speakerId -> databaseClient.sql("insert into session_speakers (session_id, speaker_id) values (:sessionId, :speakerId)")
+                        .bind("sessionId", sessionId)
+                        .bind("speakerId", speakerId)
+                        .then())
+                .then();
+    }
+
+    public Mono<Void> unlinkSession(Long sessionId)
+    {
+        return databaseClient.sql("delete from session_speakers where session_id = :id").bind("id", sessionId).then();
+    }
+
+    public Mono<Void> unlinkSpeaker(Long speakerId)
+    {
+        return databaseClient.sql("delete from session_speakers where speaker_id = :id").bind("id", speakerId).then();
+    }
+}
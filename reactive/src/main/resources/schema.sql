@@ -0,0 +1,28 @@
+-- Tables of the conference_app database, only run against embedded databases (spring.sql.init.mode=embedded).
+-- On PostgreSQL the tables already exist, the servlet application uses the same ones.
+create sequence if not exists speakers_speaker_id_seq start with 1 increment by 50;
+create sequence if not exists sessions_session_id_seq start with 1 increment by 50;
+
+create table if not exists speakers (
+    speaker_id bigint default nextval('speakers_speaker_id_seq') primary key,
+    first_name varchar(30) not null,
+    last_name varchar(30) not null,
+    title varchar(40) not null,
+    company varchar(50) not null,
+    speaker_bio varchar(2000),
+    version bigint
+);
+
+create table if not exists sessions (
+    session_id bigint default nextval('sessions_session_id_seq') primary key,
+    session_name varchar(80) not null,
+    session_description varchar(1024),
+    session_length integer,
+    version bigint
+);
+
+create table if not exists session_speakers (
+    session_id bigint not null references sessions (session_id),
+    speaker_id bigint not null references speakers (speaker_id),
+    primary key (session_id, speaker_id)
+);
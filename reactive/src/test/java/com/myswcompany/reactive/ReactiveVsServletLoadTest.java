@@ -0,0 +1,213 @@
+package com.myswcompany.reactive;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same data and same requests against this application (WebFlux + R2DBC) and the servlet application (MVC + JPA),
+// both on an in-memory H2 database. The servlet application runs from its jar in a separate JVM:
+// mvn -f ../pom.xml package -DskipTests, then mvn -Pload-test test
+@Tag("load")
+public class ReactiveVsServletLoadTest {
+
+    private static final Path SERVLET_JAR = Path.of("../target/demo-0.0.1-SNAPSHOT.jar");
+    private static final int CLIENTS = 64;
+    private static final int REQUESTS_PER_CLIENT = 50;
+    private static final int SPEAKERS = 500;
+    private static final int SESSIONS = 200;
+
+    @Test
+    public void reactiveAndServletServeTheSameLoad() throws Exception
+    {
+        Assumptions.assumeTrue(Files.exists(SERVLET_JAR), "servlet application jar missing, run mvn -f ../pom.xml package -DskipTests");
+
+        List<Result> results = new ArrayList<>();
+        try (ConfigurableApplicationContext reactive = new SpringApplicationBuilder(ReactiveDemoApplication.class)
+                .profiles("h2")
+                .run("--server.port=0", "--logging.level.root=WARN")) {
+            results.addAll(run("reactive", "http://localhost:" + ((WebServerApplicationContext) reactive).getWebServer().getPort()));
+        }
+
+        int port = freePort();
+        Process servlet = startServlet(port);
+        try {
+            String baseUrl = "http://localhost:" + port;
+            awaitHealthy(baseUrl, servlet);
+            results.addAll(run("servlet", baseUrl));
+        } finally {
+            servlet.destroy();
+            servlet.waitFor(30, TimeUnit.SECONDS);
+        }
+
+        results.forEach(System.out::println);
+        assertThat(results).allSatisfy(result -> assertThat(result.failed()).isZero());
+    }
+
+    private List<Result> run(String app, String baseUrl) throws Exception
+    {
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Long> speakerIds = new ArrayList<>();
+            for (int i = 0; i < SPEAKERS; i++) {
+                speakerIds.add(post(client, baseUrl + "/api/v1/speakers", "speaker_id", "{\"first_name\":\"First" + i + "\"," +
+                        "\"last_name\":\"Last" + i + "\",\"title\":\"Developer Advocate\",\"company\":\"Company " + i + "\"," +
+                        "\"speaker_bio\":\"Speaks about performance, databases and everything in between.\"}"));
+            }
+            for (int i = 0; i < SESSIONS; i++) {
+                post(client, baseUrl + "/api/v1/sessions", "session_id", "{\"session_name\":\"Session " + i + "\"," +
+                        "\"session_description\":\"Numbers from production.\",\"session_length\":45,\"speakers\":[" +
+                        "{\"speaker_id\":" + speakerIds.get(i % SPEAKERS) + "},{\"speaker_id\":" + speakerIds.get((i + 1) % SPEAKERS) + "}]}");
+            }
+
+            List<Result> results = new ArrayList<>();
+            results.add(load(app, "GET /speakers/{id}", client, clients,
+                    i -> baseUrl + "/api/v1/speakers/" + speakerIds.get(i % SPEAKERS)));
+            results.add(load(app, "GET /speakers?limit=50", client, clients,
+                    i -> baseUrl + "/api/v1/speakers?limit=50"));
+            results.add(load(app, "GET /sessions?limit=50", client, clients,
+                    i -> baseUrl + "/api/v1/sessions?limit=50"));
+            results.add(load(app, "GET /sessions", client, clients,
+                    i -> baseUrl + "/api/v1/sessions"));
+            return results;
+        }
+    }
+
+    private Result load(String app, String scenario, HttpClient client, ExecutorService clients, IntFunction<String> url) throws Exception
+    {
+        // warm up connections, caches and the JIT before measuring
+        measure(client, clients, url, REQUESTS_PER_CLIENT / 5);
+        long start = System.nanoTime();
+        List<Long> latencies = measure(client, clients, url, REQUESTS_PER_CLIENT);
+        long elapsed = System.nanoTime() - start;
+
+        long failed = latencies.stream().filter(latency -> latency < 0).count();
+        long[] sorted = latencies.stream().filter(latency -> latency >= 0).mapToLong(Long::longValue).sorted().toArray();
+        return new Result(app, scenario, sorted.length, failed, sorted.length / (elapsed / 1e9),
+                percentile(sorted, 0.5), percentile(sorted, 0.99));
+    }
+
+    // latency of every request in nanoseconds, -1 for a failed one
+    private List<Long> measure(HttpClient client, ExecutorService clients, IntFunction<String> url, int requests) throws Exception
+    {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(CLIENTS * requests));
+        List<Future<?>> running = new ArrayList<>(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            int offset = c * requests;
+            running.add(clients.submit(() -> {
+                for (int i = 0; i < requests; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url.apply(offset + i))).build();
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    latencies.add(response.statusCode() == 200 ? System.nanoTime() - start : -1L);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        return latencies;
+    }
+
+    private static double percentile(long[] sorted, double p)
+    {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static long post(HttpClient client, String url, String idField, String json) throws Exception
+    {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(201);
+        String body = response.body();
+        int start = body.indexOf(':', body.indexOf("\"" + idField + "\"")) + 1;
+        int end = start;
+        while (Character.isDigit(body.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(body.substring(start, end));
+    }
+
+    // The servlet application with the H2 driver of this module's test classpath added by loader.path
+    private static Process startServlet(int port) throws Exception
+    {
+        String h2Jar = new File(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        List<String> command = new ArrayList<>(Arrays.asList(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Dloader.path=" + h2Jar,
+                "-cp", SERVLET_JAR.toString(),
+                "org.springframework.boot.loader.launch.PropertiesLauncher",
+                "--server.port=" + port,
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:conference_app;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                // the load would be throttled by the per-client limits otherwise
+                "--app.rate-limit.enabled=false",
+                // the in-memory database is gone after the run, so are the updates of its journal
+                "--app.write-behind.journal=target/speaker-updates.journal"));
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private static void awaitHealthy(String baseUrl, Process servlet) throws Exception
+    {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+            while (System.nanoTime() < deadline) {
+                assertThat(servlet.isAlive()).as("servlet application exited").isTrue();
+                try {
+                    HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return;
+                    }
+                } catch (java.io.IOException notListeningYet) {
+                    // still starting
+                }
+                Thread.sleep(250);
+            }
+            throw new AssertionError("servlet application did not start");
+        }
+    }
+
+    private static int freePort() throws Exception
+    {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Result(String app, String scenario, long ok, long failed, double throughput, double p50, double p99) {
+        @Override
+        public String toString() {
+            return String.format("%-8s %-24s %6d ok, %d failed, %6.0f requests/s, p50 %7.2f ms, p99 %7.2f ms",
+                    app, scenario, ok, failed, throughput, p50, p99);
+        }
+    }
+}
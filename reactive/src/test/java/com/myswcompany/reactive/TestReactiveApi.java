@@ -0,0 +1,163 @@
+package com.myswcompany.reactive;
+
+import com.myswcompany.reactive.models.Session;
+import com.myswcompany.reactive.models.Speaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("h2")
+public class TestReactiveApi {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private long createSpeaker(String firstName)
+    {
+        Speaker speaker = webTestClient.post().uri("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"first_name\":\"" + firstName + "\",\"last_name\":\"Virtanen\",\"title\":\"Developer\",\"company\":\"Acme\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists("ETag")
+                .expectBody(Speaker.class).returnResult().getResponseBody();
+        return speaker.getSpeaker_id();
+    }
+
+    @Test
+    public void speakersCrudWithETagsAndValidation()
+    {
+        long id = createSpeaker("Reetta");
+
+        String etag = webTestClient.get().uri("/api/v1/speakers/{id}", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.first_name").isEqualTo("Reetta")
+                .jsonPath("$.version").doesNotExist()
+                .returnResult().getResponseHeaders().getETag();
+        webTestClient.get().uri("/api/v1/speakers/{id}", id).header("If-None-Match", etag).exchange()
+                .expectStatus().isNotModified();
+
+        // PUT with a stale If-Match is refused, with the current one it updates
+        webTestClient.put().uri("/api/v1/speakers/{id}", id).header("If-Match", "\"999\"").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"first_name\":\"Riikka\",\"last_name\":\"Virtanen\",\"title\":\"Developer\",\"company\":\"Acme\"}")
+                .exchange().expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        webTestClient.put().uri("/api/v1/speakers/{id}", id).header("If-Match", etag).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"first_name\":\"Riikka\",\"last_name\":\"Virtanen\",\"title\":\"Developer\",\"company\":\"Acme\"}")
+                .exchange().expectStatus().isOk()
+                .expectHeader().value("ETag", newEtag -> assertThat(newEtag).isNotEqualTo(etag));
+
+        webTestClient.patch().uri("/api/v1/speakers/{id}", id).contentType(MediaType.parseMediaType("application/json-patch+json"))
+                .bodyValue("[{\"op\":\"replace\",\"path\":\"/company\",\"value\":\"Globex\"}]")
+                .exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.company").isEqualTo("Globex").jsonPath("$.first_name").isEqualTo("Riikka");
+
+        webTestClient.post().uri("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"first_name\":\"R\",\"title\":\"Developer\",\"company\":\"Acme\"}")
+                .exchange().expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.msg").isEqualTo("Validation error(s) occurred.")
+                .jsonPath("$.errors[0]").isEqualTo("firstName: Size of the first_name has to be between 2 - 30 characters")
+                .jsonPath("$.errors[1]").isEqualTo("lastName: Last name is mandatory");
+
+        webTestClient.delete().uri("/api/v1/speakers/{id}", id).exchange()
+                .expectStatus().isOk().expectBody(Long.class).isEqualTo(id);
+        webTestClient.get().uri("/api/v1/speakers/{id}", id).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.details").isEqualTo("uri=/api/v1/speakers/" + id);
+    }
+
+    @Test
+    public void sessionsComeWithTheirSpeakers()
+    {
+        long first = createSpeaker("Aino");
+        long second = createSpeaker("Eino");
+
+        webTestClient.post().uri("/api/v1/sessions").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"session_name\":\"abc\",\"session_length\":30}")
+                .exchange().expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Session name starting with letter \"a\" is not allowed!!");
+
+        Session created = webTestClient.post().uri("/api/v1/sessions").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"session_name\":\"Reactive streams\",\"session_length\":30," +
+                        "\"speakers\":[{\"speaker_id\":" + first + "},{\"speaker_id\":" + second + "}]}")
+                .exchange().expectStatus().isCreated()
+                .expectBody(Session.class).returnResult().getResponseBody();
+        assertThat(created.getSpeakers()).extracting(Speaker::getFirst_name).containsExactlyInAnyOrder("Aino", "Eino");
+        long session = created.getSession_id();
+
+        String etag = webTestClient.get().uri("/api/v1/sessions/{id}", session).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.speakers.length()").isEqualTo(2)
+                .returnResult().getResponseHeaders().getETag();
+
+        // the session embeds its speakers, renaming one changes the session's ETag
+        webTestClient.put().uri("/api/v1/speakers/{id}", first).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"first_name\":\"Aini\",\"last_name\":\"Virtanen\",\"title\":\"Developer\",\"company\":\"Acme\"}")
+                .exchange().expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/sessions/{id}", session).header("If-None-Match", etag).exchange()
+                .expectStatus().isOk()
+                .expectHeader().value("ETag", newEtag -> assertThat(newEtag).isNotEqualTo(etag))
+                .expectBody().jsonPath("$.speakers[?(@.speaker_id == " + first + ")].first_name").isEqualTo("Aini");
+
+        // a deleted speaker leaves its sessions
+        webTestClient.delete().uri("/api/v1/speakers/{id}", second).exchange().expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/sessions/{id}", session).exchange()
+                .expectBody().jsonPath("$.speakers.length()").isEqualTo(1);
+
+        webTestClient.get().uri("/api/v1/sessions").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Session.class).value(sessions -> assertThat(sessions)
+                        .filteredOn(listed -> listed.getSession_id() == session)
+                        .singleElement().satisfies(listed -> assertThat(listed.getSpeakers()).hasSize(1)));
+
+        webTestClient.delete().uri("/api/v1/sessions/{id}", session).exchange().expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/sessions/{id}", session).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void listsArePagedByCursorAndStreamed()
+    {
+        for (String name : List.of("Kalle", "Liisa", "Matti", "Niina", "Otto")) {
+            createSpeaker(name);
+        }
+
+        // walk the pages: every speaker exactly once, in first_name order
+        List<String> names = new ArrayList<>();
+        String uri = "/api/v1/speakers?limit=2";
+        while (uri != null) {
+            var page = webTestClient.get().uri(uri).exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(Speaker.class).returnResult();
+            page.getResponseBody().forEach(speaker -> names.add(speaker.getFirst_name()));
+            String cursor = page.getResponseHeaders().getFirst("X-Next-Cursor");
+            uri = cursor == null ? null : "/api/v1/speakers?limit=2&cursor=" + cursor;
+        }
+        assertThat(names).isSorted().contains("Kalle", "Liisa", "Matti", "Niina", "Otto");
+
+        webTestClient.get().uri("/api/v1/speakers?cursor=not-a-cursor").exchange().expectStatus().isBadRequest();
+
+        // the full list and the export are streams, the client takes them one element at a time
+        Flux<Speaker> export = webTestClient.get().uri("/api/v1/speakers/export").accept(MediaType.APPLICATION_NDJSON)
+                .exchange().expectStatus().isOk()
+                .returnResult(Speaker.class).getResponseBody();
+        StepVerifier.create(export, 1)
+                .expectNextCount(1)
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(speaker -> speaker.getSpeaker_id() != null)
+                .verifyComplete();
+    }
+}
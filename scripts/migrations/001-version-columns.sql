@@ -0,0 +1,6 @@
+-- Optimistic locking / ETag columns of Speaker and Session (@Version).
+-- Hibernate doesn't touch the schema (spring.jpa.hibernate.ddl-auto=none), run this once against an existing
+-- conference_app database before deploying, e.g.: psql -d conference_app -f scripts/migrations/001-version-columns.sql
+-- Existing rows start at version 0. Safe to run twice.
+alter table speakers add column if not exists version bigint not null default 0;
+alter table sessions add column if not exists version bigint not null default 0;
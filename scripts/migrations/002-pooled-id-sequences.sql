@@ -0,0 +1,8 @@
+-- The id sequences of speakers and sessions hand out blocks of 50 ids (@SequenceGenerator allocationSize = 50,
+-- pooled optimizer). Hibernate checks the increment at startup and refuses a sequence that doesn't match.
+-- Run once against an existing conference_app database before deploying, e.g.:
+--   psql -d conference_app -f scripts/migrations/002-pooled-id-sequences.sql
+-- Hibernate takes each value it fetches as the upper end of its next block, so the ids it hands out after this
+-- continue above the ones already used. Safe to run twice.
+alter sequence speakers_speaker_id_seq increment by 50;
+alter sequence sessions_session_id_seq increment by 50;
@@ -0,0 +1,8 @@
+-- A speaker is linked to a session once: unique (session_id, speaker_id) on the join table. Linking speakers
+-- (POST /api/v1/sessions/{id}/speakers) relies on it, INSERT ... ON CONFLICT DO NOTHING skips the rows that exist.
+-- Run once against an existing conference_app database before deploying, e.g.:
+--   psql -d conference_app -f scripts/migrations/003-session-speakers-unique.sql
+-- Duplicate rows left by earlier versions are removed first. Safe to run twice.
+delete from session_speakers a using session_speakers b
+where a.session_id = b.session_id and a.speaker_id = b.speaker_id and a.ctid > b.ctid;
+create unique index if not exists session_speakers_session_id_speaker_id_key on session_speakers (session_id, speaker_id);
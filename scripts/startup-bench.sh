@@ -0,0 +1,96 @@
+#!/usr/bin/env bash
+# Time to first request of the application in each startup mode:
+#   jvm     exploded jar on the JVM
+#   cds     same, with an AppCDS archive recorded by a training run (-XX:ArchiveClassesAtExit)
+#   aot     same, using the Spring AOT initializers generated by -Pnative (-Dspring.aot.enabled=true)
+#   aot-cds aot and cds together
+#   native  GraalVM native image (target/demo), only when native-image is on the PATH or NATIVE=1
+# "First request" is the first 200 from GET /api/v1/speakers, measured from process start.
+# Results are appended to target/startup-bench.csv (mode,run,millis).
+#
+#   scripts/startup-bench.sh [runs]
+#
+# The database is the one of application.properties. To run against something else pass Spring arguments in
+# APP_ARGS and extra jars (a JDBC driver) in EXTRA_CLASSPATH, e.g. an in-memory H2:
+#   EXTRA_CLASSPATH=~/.m2/repository/com/h2database/h2/2.2.224/h2-2.2.224.jar \
+#   APP_ARGS="--spring.datasource.url=jdbc:h2:mem:conference_app;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE
+#     --spring.datasource.username=sa --spring.datasource.password= --spring.jpa.database-platform=org.hibernate.dialect.H2Dialect
+#     --spring.jpa.hibernate.ddl-auto=create-drop" scripts/startup-bench.sh
+#
+# Note that with AOT (aot, aot-cds, native) the @Conditional beans are decided at build time: build with the
+# VIRTUAL_THREADS / RATE_LIMIT_ENABLED settings the pods will run with.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+MAIN=com.myswcompany.demo.DemoApplication
+OUT=target/startup-bench
+CSV=target/startup-bench.csv
+MVN=${MVN:-./mvnw}
+read -r -d '' -a ARGS <<< "${APP_ARGS:-}" || true
+ARGS+=("--server.port=$PORT" "--logging.level.root=WARN")
+
+NATIVE=${NATIVE:-$(command -v native-image > /dev/null && echo 1 || echo 0)}
+
+# the AOT-processed jar still starts the regular way without -Dspring.aot.enabled, one build serves all JVM modes
+"$MVN" -B -q -Pnative -DskipTests package
+if [ "$NATIVE" = 1 ]; then
+    "$MVN" -B -q -Pnative -DskipTests native:compile
+fi
+
+# CDS can't archive classes loaded from directories or from jars nested in the Boot jar: unpack it,
+# and put the application classes into a jar of their own
+rm -rf "$OUT" && mkdir -p "$OUT"
+(cd "$OUT" && jar xf ../demo-0.0.1-SNAPSHOT.jar)
+jar cf "$OUT/application.jar" -C "$OUT/BOOT-INF/classes" .
+CP="$OUT/application.jar:$(ls "$OUT"/BOOT-INF/lib/*.jar | tr '\n' ':')${EXTRA_CLASSPATH:-}"
+# the generated AOT classes and resources are in BOOT-INF/classes as well, application.jar carries them
+
+# training runs: start, stop right after the context refresh, dump the loaded classes
+java -XX:ArchiveClassesAtExit="$OUT/jvm.jsa" -Dspring.context.exit=onRefresh -cp "$CP" "$MAIN" "${ARGS[@]}" > /dev/null
+java -XX:ArchiveClassesAtExit="$OUT/aot.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh -cp "$CP" "$MAIN" "${ARGS[@]}" > /dev/null
+
+command_of() {
+    case "$1" in
+        jvm)     echo java -cp "$CP" "$MAIN" ;;
+        cds)     echo java -XX:SharedArchiveFile="$OUT/jvm.jsa" -cp "$CP" "$MAIN" ;;
+        aot)     echo java -Dspring.aot.enabled=true -cp "$CP" "$MAIN" ;;
+        aot-cds) echo java -XX:SharedArchiveFile="$OUT/aot.jsa" -Dspring.aot.enabled=true -cp "$CP" "$MAIN" ;;
+        native)  echo target/demo ;;
+    esac
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# prints the milliseconds from start to the first 200
+time_to_first_request() {
+    local start pid
+    start=$(now_ms)
+    # shellcheck disable=SC2046
+    $(command_of "$1") "${ARGS[@]}" > "$OUT/$1.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/v1/speakers"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$1 exited, see $OUT/$1.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    echo $(( $(now_ms) - start ))
+    kill "$pid" && wait "$pid" 2> /dev/null || true
+}
+
+MODES=(jvm cds aot aot-cds)
+[ "$NATIVE" = 1 ] && MODES+=(native)
+
+[ -f "$CSV" ] || echo "mode,run,millis" > "$CSV"
+for mode in "${MODES[@]}"; do
+    for run in $(seq 1 "$RUNS"); do
+        millis=$(time_to_first_request "$mode")
+        echo "$mode,$run,$millis" >> "$CSV"
+        printf '%-8s run %d: %5d ms\n' "$mode" "$run" "$millis"
+    done
+done
@@ -1,9 +1,12 @@
 package com.myswcompany.demo;
 
+import com.myswcompany.demo.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class DemoApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,32 @@
+package com.myswcompany.demo.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+@Configuration
+public class CacheConfig {
+
+    // One JCache manager (Caffeine, configured by application.conf) shared by the Hibernate
+    // second-level cache and SecondLevelCacheStatistics, instead of Hibernate creating its own.
+    // The URI is unique per application context: the provider's default manager is JVM-wide, and two
+    // contexts (tests, benchmarks) on different databases must not see each other's cached rows.
+    @Bean(destroyMethod = "close")
+    public CacheManager jcacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create("conference-app:" + UUID.randomUUID()), provider.getDefaultClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(CacheManager jcacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, jcacheManager);
+    }
+}
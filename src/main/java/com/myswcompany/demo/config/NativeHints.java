@@ -0,0 +1,75 @@
+package com.myswcompany.demo.config;
+
+import com.github.fge.jsonpatch.AddOperation;
+import com.github.fge.jsonpatch.CopyOperation;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchOperation;
+import com.github.fge.jsonpatch.MoveOperation;
+import com.github.fge.jsonpatch.RemoveOperation;
+import com.github.fge.jsonpatch.ReplaceOperation;
+import com.github.fge.jsonpatch.TestOperation;
+import com.myswcompany.demo.exceptions.ApiError;
+import com.myswcompany.demo.exceptions.ContentNotAllowedException;
+import com.myswcompany.demo.exceptions.ErrorDetails;
+import com.myswcompany.demo.exceptions.InvalidCursorException;
+import com.myswcompany.demo.exceptions.InvalidFieldsException;
+import com.myswcompany.demo.exceptions.ResourceNotFoundException;
+import com.myswcompany.demo.exceptions.UnknownSpeakersException;
+import com.myswcompany.demo.models.BatchItemResult;
+import com.myswcompany.demo.models.CacheRegionStats;
+import com.myswcompany.demo.models.ChangeFeedEntry;
+import com.myswcompany.demo.models.PatchOperation;
+import com.myswcompany.demo.models.SearchHit;
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.SessionLink;
+import com.myswcompany.demo.models.SessionRow;
+import com.myswcompany.demo.models.SessionVersion;
+import com.myswcompany.demo.models.SessionView;
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.models.SpeakerCompany;
+import com.myswcompany.demo.models.SpeakerView;
+import com.myswcompany.demo.models.Stats;
+import com.myswcompany.demo.models.TableFingerprint;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+// What a native image (mvn -Pnative native:compile) can't find out on its own: Spring AOT covers the beans,
+// repositories and entity scanning, but not what is only reached by reflection at runtime.
+// The AOT processing can be checked without GraalVM: mvn -Pnative package, then java -Dspring.aot.enabled=true -jar ...
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    // JSON bodies, read and written by Jackson
+    private static final List<Class<?>> JSON = List.of(Speaker.class, Session.class, SpeakerView.class, SessionView.class,
+            PatchOperation.class, BatchItemResult.class, CacheRegionStats.class, SearchHit.class, ChangeFeedEntry.class, Stats.class,
+            ApiError.class, ErrorDetails.class);
+
+    // JSON Patch documents are deserialized polymorphically by the "op" name (@JsonSubTypes of JsonPatchOperation)
+    private static final List<Class<?>> JSON_PATCH = List.of(JsonPatch.class, JsonPatchOperation.class, AddOperation.class,
+            CopyOperation.class, MoveOperation.class, RemoveOperation.class, ReplaceOperation.class, TestOperation.class);
+
+    // created by Hibernate from "select new ..." JPQL through their constructors
+    private static final List<Class<?>> CONSTRUCTOR_RESULTS = List.of(SpeakerView.class, SessionRow.class, TableFingerprint.class,
+            SessionVersion.class, SpeakerCompany.class, SessionLink.class);
+
+    // the checked exceptions are matched by @ExceptionHandler / @ResponseStatus reflectively
+    private static final List<Class<?>> EXCEPTIONS = List.of(ResourceNotFoundException.class, ContentNotAllowedException.class,
+            InvalidCursorException.class, InvalidFieldsException.class, UnknownSpeakersException.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        JSON.forEach(type -> bindings.registerReflectionHints(hints.reflection(), type));
+        JSON_PATCH.forEach(type -> hints.reflection().registerType(type, MemberCategory.values()));
+        CONSTRUCTOR_RESULTS.forEach(type -> hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS));
+        EXCEPTIONS.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+
+        // JCache/Caffeine region settings, json-patch error messages
+        hints.resources().registerPattern("application.conf");
+        hints.resources().registerPattern("com/github/fge/jsonpatch/messages.properties");
+    }
+}
@@ -0,0 +1,74 @@
+package com.myswcompany.demo.config;
+
+import com.myswcompany.demo.filters.RateLimitFilter;
+import com.myswcompany.demo.filters.RateLimitFilter.Group;
+import com.myswcompany.demo.filters.RateLimitFilter.Limit;
+import com.myswcompany.demo.filters.RateLimitFilter.Outcome;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+
+// Per-client rate limits and load shedding on /api (RateLimitFilter), switched off with app.rate-limit.enabled=false
+@Configuration
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            DataSource dataSource,
+            @Value("${app.rate-limit.read.rate}") double readRate,
+            @Value("${app.rate-limit.read.burst}") int readBurst,
+            @Value("${app.rate-limit.write.rate}") double writeRate,
+            @Value("${app.rate-limit.write.burst}") int writeBurst,
+            @Value("${app.rate-limit.idle-expiry}") Duration idleExpiry,
+            @Value("${app.load-shedding.max-pending-connections}") int maxPendingConnections,
+            @Value("${app.load-shedding.retry-after}") Duration retryAfter) throws SQLException {
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        RateLimitFilter filter = new RateLimitFilter(new Limit(readRate, readBurst), new Limit(writeRate, writeBurst), idleExpiry,
+                () -> {
+                    // null until the pool has been started by the first getConnection()
+                    HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+                    return bean == null ? 0 : bean.getThreadsAwaitingConnection();
+                },
+                maxPendingConnections, retryAfter);
+
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        // ahead of the admission limit, a rejected request shouldn't take a permit first
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+
+    // app.rate.limit.requests{group="read|write",outcome="allowed|limited|shed"} and the number of tracked clients
+    @Bean
+    public MeterBinder rateLimitMetrics(FilterRegistrationBean<RateLimitFilter> rateLimitFilter) {
+        RateLimitFilter filter = rateLimitFilter.getFilter();
+        return registry -> {
+            for (Group group : Group.values()) {
+                for (Outcome outcome : Outcome.values()) {
+                    FunctionCounter.builder("app.rate.limit.requests", filter, f -> f.count(group, outcome))
+                            .description("/api requests by rate limit outcome")
+                            .tag("group", group.name().toLowerCase(Locale.ROOT))
+                            .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                            .register(registry);
+                }
+            }
+            Gauge.builder("app.rate.limit.clients", filter, RateLimitFilter::trackedClients)
+                    .description("Clients with a token bucket")
+                    .register(registry);
+        };
+    }
+}
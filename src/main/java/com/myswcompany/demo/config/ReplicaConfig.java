@@ -0,0 +1,139 @@
+package com.myswcompany.demo.config;
+
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.datasource.ReplicaAwareJpaDialect;
+import com.myswcompany.demo.datasource.ReplicaPool;
+import com.myswcompany.demo.datasource.ReplicaPool.Selection;
+import com.myswcompany.demo.datasource.ReplicaPool.Target;
+import com.myswcompany.demo.filters.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Read replicas, only when app.replicas.urls is set (otherwise Boot's single DataSource is used as before).
+//
+// Read-only transactions (the GET endpoints and exports) get their connection from a replica, everything else
+// from the primary. LazyConnectionDataSourceProxy makes this work with JPA: Hibernate marks the connection
+// read-only when the transaction begins, but the proxy only fetches the real connection at the first
+// statement, and then from the ReplicaPool if it was marked read-only. Right after a write those reads don't
+// populate the shared caches, see ReplicaAwareJpaDialect.
+@Configuration
+@ConditionalOnProperty("app.replicas.urls")
+public class ReplicaConfig {
+
+    @Autowired
+    private ObjectProvider<ReplicaPool> replicaPool;
+
+    // spring.datasource.* and spring.datasource.hikari.*, as Boot would build it
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Same pool settings as the primary, replica connections are read-only
+    @Bean(destroyMethod = "close")
+    public ReplicaPool replicaPool(
+            HikariDataSource primaryDataSource,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.replicas.urls}") List<String> urls,
+            @Value("${app.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${app.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${app.replicas.selection:round-robin}") String selection,
+            @Value("${app.replicas.max-lag:1s}") Duration maxLag,
+            @Value("${app.replicas.health-check-interval:5s}") Duration healthCheckInterval) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setReadOnly(true);
+            config.setPoolName("replica-" + i);
+            config.setMetricRegistry(null);
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaPool(primaryDataSource, replicas,
+                Selection.valueOf(selection.toUpperCase(Locale.ROOT).replace('-', '_')), maxLag, healthCheckInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaPool);
+        return dataSource;
+    }
+
+    // The entity manager factory (and with it the JpaTransactionManager) uses ReplicaAwareJpaDialect
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialect(ObjectProvider<ReplicaPool> replicaPool) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.setJpaDialect(new ReplicaAwareJpaDialect(SingletonSupplier.of(replicaPool::getObject)));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${app.replicas.sticky-window:5s}") Duration stickyWindow) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(stickyWindow));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    // Every committed write starts the max-lag window, also those made outside of a request (SpeakerWriteBehind)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        replicaPool.ifAvailable(ReplicaPool::written);
+    }
+
+    // app.replicas.connections{target="replica|primary"}: connections of read-only transactions, app.replicas.healthy
+    @Bean
+    public MeterBinder replicaMetrics(ReplicaPool replicaPool) {
+        return registry -> {
+            for (Target target : Target.values()) {
+                FunctionCounter.builder("app.replicas.connections", replicaPool, pool -> pool.connections(target))
+                        .description("Connections of read-only transactions by where they came from")
+                        .tag("target", target.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+            Gauge.builder("app.replicas.healthy", replicaPool, ReplicaPool::healthyReplicas)
+                    .description("Replicas that passed their last health check")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.myswcompany.demo.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myswcompany.demo.filters.JsonBodyPrecheckFilter;
+import com.myswcompany.demo.filters.JsonBodyPrecheckFilter.Outcome;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Locale;
+
+// Size and syntax checks of JSON request bodies ahead of data binding (JsonBodyPrecheckFilter)
+@Configuration
+public class RequestBodyConfig {
+
+    @Bean
+    public FilterRegistrationBean<JsonBodyPrecheckFilter> jsonBodyPrecheckFilter(
+            ObjectMapper objectMapper,
+            @Value("${app.request-body.max-size}") DataSize maxSize,
+            @Value("${app.request-body.max-depth}") int maxDepth) throws JsonProcessingException {
+        FilterRegistrationBean<JsonBodyPrecheckFilter> registration =
+                new FilterRegistrationBean<>(new JsonBodyPrecheckFilter(objectMapper, (int) maxSize.toBytes(), maxDepth));
+        // default order, after the rate limit: a client flooding invalid bodies is throttled before they are read
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    // app.request.body.checks{outcome="passed|malformed|too_large"}
+    @Bean
+    public MeterBinder jsonBodyPrecheckMetrics(FilterRegistrationBean<JsonBodyPrecheckFilter> jsonBodyPrecheckFilter) {
+        JsonBodyPrecheckFilter filter = jsonBodyPrecheckFilter.getFilter();
+        return registry -> {
+            for (Outcome outcome : Outcome.values()) {
+                FunctionCounter.builder("app.request.body.checks", filter, f -> f.count(outcome))
+                        .description("JSON request bodies by precheck outcome")
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.myswcompany.demo.config;
+
+import com.myswcompany.demo.filters.AdmissionLimitFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// spring.threads.virtual.enabled switches Tomcat request handling and the application task executor
+// (async MVC, i.e. the NDJSON exports) to virtual threads. In that mode the request admission limit
+// takes over the job of Tomcat's bounded thread pool.
+@Configuration
+public class ThreadingConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<AdmissionLimitFilter> admissionLimitFilter(
+            @Value("${app.admission.max-concurrent}") int maxConcurrent,
+            @Value("${app.admission.acquire-timeout}") Duration acquireTimeout,
+            @Value("${app.admission.retry-after}") Duration retryAfter) {
+        FilterRegistrationBean<AdmissionLimitFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionLimitFilter(maxConcurrent, acquireTimeout, retryAfter));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public MeterBinder admissionLimitMetrics(FilterRegistrationBean<AdmissionLimitFilter> admissionLimitFilter) {
+        return registry -> Gauge.builder("app.admission.in.flight", admissionLimitFilter.getFilter(), AdmissionLimitFilter::inFlight)
+                .description("/api requests currently admitted")
+                .register(registry);
+    }
+}
@@ -0,0 +1,25 @@
+package com.myswcompany.demo.controllers;
+
+import com.myswcompany.demo.models.CacheRegionStats;
+import com.myswcompany.demo.services.SecondLevelCacheStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1")
+public class CacheController {
+
+    @Autowired
+    private SecondLevelCacheStatistics cacheStatistics;
+
+    // Hit/miss/put/eviction counters of every second-level cache region, for sizing the caches
+    @GetMapping("/cache/statistics")
+    public List<CacheRegionStats> getCacheStatistics()
+    {
+        return cacheStatistics.regions();
+    }
+}
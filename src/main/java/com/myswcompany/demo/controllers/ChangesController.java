@@ -0,0 +1,53 @@
+package com.myswcompany.demo.controllers;
+
+import com.myswcompany.demo.services.ChangeFeed;
+import com.myswcompany.demo.services.ChangeFeed.Format;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+@RestController
+@RequestMapping("/api/v1")
+public class ChangesController {
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    // Creates, updates and deletes of speakers and sessions as they are committed, instead of polling the lists.
+    // GET /api/v1/changes (Accept: text/event-stream)
+    //   id: 42
+    //   event: updated
+    //   data: {"seq":42,"resource":"speakers","id":7,"change":"updated","time":"2024-05-01T10:15:30Z"}
+    // A reconnecting EventSource sends Last-Event-ID and continues after that change. Without it (or ?since=)
+    // the stream starts with the next change. "event: reset" means changes were missed: re-read the lists.
+    // The stream ends after app.changes.stream-duration, clients reconnect.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> changes(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long since)
+    {
+        return subscribe(lastEventId != null ? lastEventId : since, Format.SSE);
+    }
+
+    // Same as NDJSON (Accept: application/x-ndjson), one change per line, {"reset":<seq>} for a reset
+    // and an empty line as keep-alive. Resume with ?since=<seq of the last change seen>.
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> changesNdjson(@RequestParam(required = false) Long since)
+    {
+        return subscribe(since, Format.NDJSON);
+    }
+
+    private ResponseEntity<ResponseBodyEmitter> subscribe(Long after, Format format)
+    {
+        return changeFeed.subscribe(after, format)
+                .map(emitter -> ResponseEntity.ok().header("Cache-Control", "no-store").body(emitter))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build());
+    }
+}
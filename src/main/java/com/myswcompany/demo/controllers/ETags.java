@@ -0,0 +1,54 @@
+package com.myswcompany.demo.controllers;
+
+import com.myswcompany.demo.models.SessionVersion;
+import com.myswcompany.demo.models.TableFingerprint;
+
+// Strong entity tags built from the @Version column (single resources) or a SessionVersion (a session with
+// its speakers), weak ones from a TableFingerprint (list endpoints).
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(SessionVersion version) {
+        StringBuilder etag = new StringBuilder("\"").append(version.version()).append('.');
+        return append(etag, version.speakers()).append('"').toString();
+    }
+
+    // A list built from several tables (sessions with their speakers) gets one part per table.
+    // Weak: a list is sent as identity or gzip bytes (see ListResponses) under the same tag, which is only
+    // right for semantically equivalent representations. If-None-Match compares weakly, so 304s still work.
+    static String of(TableFingerprint... fingerprints) {
+        StringBuilder etag = new StringBuilder("W/\"");
+        for (TableFingerprint fingerprint : fingerprints) {
+            if (etag.length() > 3) {
+                etag.append('.');
+            }
+            append(etag, fingerprint);
+        }
+        return etag.append('"').toString();
+    }
+
+    private static StringBuilder append(StringBuilder etag, TableFingerprint fingerprint) {
+        return etag.append(fingerprint.rows()).append('-').append(fingerprint.maxId()).append('-').append(fingerprint.versionSum());
+    }
+
+    // If-Match uses the strong comparison: "*" or one of the listed tags must equal the current tag.
+    // No header means no precondition.
+    static boolean matches(String ifMatch, String etag) {
+        if (ifMatch == null) {
+            return true;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
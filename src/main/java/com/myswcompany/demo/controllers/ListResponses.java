@@ -0,0 +1,62 @@
+package com.myswcompany.demo.controllers;
+
+import com.myswcompany.demo.services.SerializedListCache.SerializedList;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+// Responses of the list endpoints from SerializedListCache: the cached bytes are written as they are,
+// the gzip copy to clients that accept it (Content-Encoding: gzip, Vary: Accept-Encoding). Both under the
+// same weak ETag.
+final class ListResponses {
+
+    private ListResponses() {
+    }
+
+    static ResponseEntity<byte[]> of(SerializedList list, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(list.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (list.nextCursor() != null) {
+            response.header(KeysetCursor.NEXT_CURSOR_HEADER, list.nextCursor());
+        }
+        if (list.gzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(list.gzip());
+        }
+        return response.body(list.json());
+    }
+
+    // Accept-Encoding: gzip, deflate, br / gzip;q=0.8 / * - an explicit gzip;q=0 wins over *
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = acceptable(parts);
+            } else if (name.equals("*")) {
+                wildcard = acceptable(parts);
+            }
+        }
+        return gzip != null ? gzip : wildcard;
+    }
+
+    private static boolean acceptable(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) > 0;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
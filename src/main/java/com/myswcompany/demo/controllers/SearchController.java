@@ -0,0 +1,35 @@
+package com.myswcompany.demo.controllers;
+
+import com.myswcompany.demo.models.SearchHit;
+import com.myswcompany.demo.services.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1")
+public class SearchController {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    // Full-text search over speakers (names, company, title, bio) and sessions (name, description).
+    // GET /api/v1/search?q=spring kub&limit=20 - every word has to match a word or the start of a word,
+    // best matches first: [{"resource":"sessions","id":12,"title":"Spring on Kubernetes","score":4.1}, ...]
+    // Answered from the in-memory SearchIndex, not from the database.
+    @GetMapping("/search")
+    public List<SearchHit> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit)
+    {
+        int max = limit == null || limit < 1 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return searchIndex.search(q, max);
+    }
+}
@@ -1,45 +1,182 @@
 package com.myswcompany.demo.controllers;
 
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.events.EntityChangedEvent.Change;
 import com.myswcompany.demo.exceptions.ErrorDetails;
+import com.myswcompany.demo.exceptions.InvalidCursorException;
+import com.myswcompany.demo.exceptions.InvalidFieldsException;
 import com.myswcompany.demo.exceptions.ResourceNotFoundException;
+import com.myswcompany.demo.exceptions.UnknownSpeakersException;
 import com.myswcompany.demo.exceptions.ContentNotAllowedException;
+import com.myswcompany.demo.models.BatchItemResult;
 import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.SessionVersion;
+import com.myswcompany.demo.models.SessionView;
 import com.myswcompany.demo.models.Speaker;
 import com.myswcompany.demo.repositories.SessionRepository;
+import com.myswcompany.demo.repositories.SpeakerRepository;
 import jakarta.validation.Valid;
+import org.hibernate.proxy.HibernateProxy;
+import com.myswcompany.demo.services.BatchWriter;
+import com.myswcompany.demo.services.CoalescedReads;
+import com.myswcompany.demo.services.NdjsonExporter;
+import com.myswcompany.demo.services.ReplaceWriter;
+import com.myswcompany.demo.services.ReplaceWriter.Replaced;
+import com.myswcompany.demo.services.SerializedListCache;
+import com.myswcompany.demo.services.SerializedListCache.SerializedList;
+import com.myswcompany.demo.services.SessionSpeakerLinks;
+import com.myswcompany.demo.services.SparseFieldsets;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.rmi.ServerException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1")
 public class SessionsController {
+
+    // stackless and immutable, one instance serves every rejected session
+    private static final ContentNotAllowedException NAME_STARTS_WITH_A =
+            new ContentNotAllowedException("Session name starting with letter \"a\" is not allowed!!");
+
     @Autowired
     private SessionRepository sessionRepository;
 
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private SerializedListCache listCache;
+
+    @Autowired
+    private SparseFieldsets sparseFieldsets;
+
+    @Autowired
+    private SessionSpeakerLinks sessionSpeakerLinks;
+
+    @Autowired
+    private ReplaceWriter replaceWriter;
+
+    @Autowired
+    private CoalescedReads coalescedReads;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Keyset paging works the same way as for speakers:
+    // GET /api/v1/sessions?limit=50&cursor=<X-Next-Cursor of the previous response>
+    // ETag, If-None-Match and the serialized list cache work the same way too. Sessions are
+    // returned with their speakers, so the ETag covers both tables.
+    //
+    // Reads run in a read-only transaction on SessionView records, no entity is loaded.
+    // ?fields=session_name,speakers selects only those (plus session_id), see SparseFieldsets.
     @GetMapping("/sessions")
-    public List<Session> listAllSessions()
+    @Transactional(readOnly = true)
+    public ResponseEntity<byte[]> listAllSessions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) throws InvalidCursorException, InvalidFieldsException
+    {
+        Set<String> selected = sparseFieldsets.sessionFields(fields);
+        String etag = ETags.of(coalescedReads.sessionFingerprint(), coalescedReads.speakerFingerprint());
+        if (webRequest.checkNotModified(etag)) {
+            // 304 Not Modified has already been set up by checkNotModified
+            return null;
+        }
+        String fieldsKey = selected == null ? null : String.join(",", selected);
+
+        if (cursor == null && limit == null) {
+            SerializedList list = listCache.get(EntityChangedEvent.SESSIONS, etag, null, null, fieldsKey, () -> new SerializedListCache.Page(
+                    selected == null ? SessionView.of(coalescedReads.allSessionRows()) : sparseFieldsets.sessions(selected, null, null, null).items(), null));
+            return ListResponses.of(list, acceptEncoding);
+        }
+
+        int pageSize = KeysetCursor.pageSize(limit);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        SerializedList list = listCache.get(EntityChangedEvent.SESSIONS, etag, cursor, pageSize, fieldsKey, () -> {
+            if (selected != null) {
+                SparseFieldsets.Slice slice = sparseFieldsets.sessions(selected,
+                        after == null ? null : after.sortKey(), after == null ? null : after.id(), pageSize);
+                return new SerializedListCache.Page(slice.items(), slice.items().size() == pageSize
+                        ? new KeysetCursor(slice.lastSortKey(), slice.lastId()).encode() : null);
+            }
+
+            List<Long> ids = after == null
+                    ? sessionRepository.findFirstPageIds(PageRequest.of(0, pageSize))
+                    : sessionRepository.findPageIdsAfter(after.sortKey(), after.id(), PageRequest.of(0, pageSize));
+            List<SessionView> sessions = ids.isEmpty() ? List.of() : SessionView.of(sessionRepository.findRows(ids));
+            String nextCursor = null;
+            if (sessions.size() == pageSize) {
+                SessionView last = sessions.get(sessions.size() - 1);
+                nextCursor = new KeysetCursor(last.sessionName(), last.sessionId()).encode();
+            }
+            return new SerializedListCache.Page(sessions, nextCursor);
+        });
+        return ListResponses.of(list, acceptEncoding);
+    }
+
+    // Full export for sync jobs, one session per line (application/x-ndjson).
+    // Rows are streamed from a database cursor straight to the response, nothing is collected in memory.
+    @GetMapping(value = "/sessions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSessions()
     {
-        List<Session> sessions = sessionRepository.findAll(Sort.by(Sort.Direction.ASC, "sessionName"));
-        return sessions;
+        StreamingResponseBody body = ndjsonExporter.export(sessionRepository::streamAll);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
+    // ETag = version of the session and of its speakers (a renamed speaker changes the body too, see SessionVersion),
+    // If-None-Match is answered with 304 without loading the session. ?fields= works as for the list.
     @GetMapping("/sessions/{id}")
-    public ResponseEntity<Session> getSessionById(
-            @PathVariable(value = "id") Long id) throws ResourceNotFoundException {
-        Session s = sessionRepository.findById(id).orElseThrow(
+    @Transactional(readOnly = true)
+    public ResponseEntity<Object> getSessionById(
+            @PathVariable(value = "id") Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) throws ResourceNotFoundException, InvalidFieldsException {
+        Set<String> selected = sparseFieldsets.sessionFields(fields);
+        // concurrent requests for the same session share the queries, see CoalescedReads
+        String etag = coalescedReads.sessionVersion(id).map(ETags::of).orElseThrow(
                 () -> new ResourceNotFoundException("Session not found with this id: " + id));
-        return ResponseEntity.ok().body(s);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        // the body is read after the ETag, so it is never older than the tag it is sent with
+        if (selected != null) {
+            Map<String, Object> session = sparseFieldsets.session(selected, id).orElseThrow(
+                    () -> new ResourceNotFoundException("Session not found with this id: " + id));
+            return ResponseEntity.ok().eTag(etag).body(session);
+        }
+        SessionView s = SessionView.of(coalescedReads.sessionRows(id)).stream().findFirst().orElseThrow(
+                () -> new ResourceNotFoundException("Session not found with this id: " + id));
+        return ResponseEntity.ok().eTag(etag).body(s);
     }
 
     // POST
@@ -57,35 +194,136 @@ public class SessionsController {
             @RequestBody Session session) throws ContentNotAllowedException, ServerException {
 
         if(session.getSession_name().startsWith("a"))
-            throw new ContentNotAllowedException("Session name starting with letter \"a\" is not allowed!!");
+            throw NAME_STARTS_WITH_A;
 
-        Session postedSession = sessionRepository.saveAndFlush(session);
+        Session postedSession = sessionRepository.saveAndFlush(asNewSession(session));
         if(postedSession == null) {
             throw new ServerException("Something went wrong");
         }
         else {
-            return new ResponseEntity<>(postedSession, HttpStatus.CREATED);
+            changed(postedSession.getSession_id(), Change.CREATED);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(etag(postedSession.getSession_id())).body(postedSession);
         }
     }
 
+    // Bulk create for imports: POST /api/v1/sessions:batch
+    // JSON array or NDJSON body, one status per item in the response (see SpeakersController.createSpeakers).
+    @PostMapping(value = "/sessions:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<List<BatchItemResult>> createSessions(InputStream body) throws IOException
+    {
+        List<BatchItemResult> results = batchWriter.insertAll(body, Session.class,
+                session -> session.getSession_name().startsWith("a")
+                        ? "Session name starting with letter \"a\" is not allowed!!" : null,
+                this::asNewSession,
+                Session::getSession_id);
+        results.stream().filter(result -> result.id() != null).forEach(result -> changed(result.id(), Change.CREATED));
+        return ResponseEntity.ok(results);
+    }
+
+    // If-Match: <ETag of GET /sessions/{id}> makes the update conditional, a stale tag is answered with 412.
     @PutMapping("/sessions/{id}")
     public ResponseEntity<Session> updateSession(
             @PathVariable(value = "id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody Session session)
     {
-        return sessionRepository.findById(id).map(sess -> {
-            sess.setSession_name(session.getSession_name());
-            sess.setSession_description(session.getSession_description());
-            sess.setSession_length(session.getSession_length());
+        // Only changed columns are written and an unchanged body writes nothing, see ReplaceWriter
+        Replaced<Session> replaced = replaceWriter.replace(Session.class, id, Session::getVersion,
+                // If-Match can't match a session that doesn't exist (If-Match: * included)
+                version -> version == null ? ifMatch == null : ifMatch == null || ETags.matches(ifMatch, etag(id)),
+                sess -> {
+                    sess.setSession_name(session.getSession_name());
+                    sess.setSession_description(session.getSession_description());
+                    sess.setSession_length(session.getSession_length());
+                },
+                () -> asNewSession(session));
+
+        Session joo = replaced.entity();
+        return switch (replaced.outcome()) {
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case CREATED -> {
+                changed(joo.getSession_id(), Change.CREATED);
+                yield ResponseEntity.status(HttpStatus.CREATED).eTag(etag(joo.getSession_id())).body(joo);
+            }
+            case UPDATED -> {
+                changed(id, Change.UPDATED);
+                yield ResponseEntity.ok().eTag(etag(id)).body(joo);
+            }
+            case UNCHANGED -> ResponseEntity.ok().eTag(etag(id)).body(joo);
+        };
+    }
 
-            var joo = sessionRepository.saveAndFlush(sess);
+    // Speakers of a session are changed without replacing the session, the body is a set of speaker ids:
+    // POST /api/v1/sessions/7/speakers [1, 2, 3] links the ones not linked yet (unknown ids are a 400),
+    // DELETE /api/v1/sessions/7/speakers [2] unlinks them.
+    // Only the changed session_speakers rows are written, see SessionSpeakerLinks. The response is the session
+    // with its speakers and new ETag. If-Match: <ETag of the session> makes the change conditional, a stale tag is a 412.
+    @PostMapping("/sessions/{id}/speakers")
+    public ResponseEntity<SessionView> addSpeakers(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Set<Long> speakerIds) throws ResourceNotFoundException, UnknownSpeakersException
+    {
+        SessionVersion version = sessionRepository.findVersionById(id).orElseThrow(
+                () -> new ResourceNotFoundException("Session not found with this id: " + id));
+        if (!ETags.matches(ifMatch, ETags.of(version))) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
 
-            return new ResponseEntity<>(joo, HttpStatus.OK);
-        }).orElseGet(() -> {
-            Session created = sessionRepository.saveAndFlush(session);
+        int linked = sessionSpeakerLinks.link(id, ifMatch == null ? null : version.version(), speakerIds);
+        return speakersChanged(id, linked);
+    }
 
-            return new ResponseEntity<>(created, HttpStatus.CREATED);
-        });
+    @DeleteMapping("/sessions/{id}/speakers")
+    public ResponseEntity<SessionView> removeSpeakers(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Set<Long> speakerIds) throws ResourceNotFoundException
+    {
+        SessionVersion version = sessionRepository.findVersionById(id).orElseThrow(
+                () -> new ResourceNotFoundException("Session not found with this id: " + id));
+        if (!ETags.matches(ifMatch, ETags.of(version))) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+
+        int unlinked = sessionSpeakerLinks.unlink(id, ifMatch == null ? null : version.version(), speakerIds);
+        return speakersChanged(id, unlinked);
+    }
+
+    private ResponseEntity<SessionView> speakersChanged(Long id, int rows) throws ResourceNotFoundException
+    {
+        if (rows > 0) {
+            changed(id, Change.UPDATED);
+        }
+        String etag = etag(id);
+        SessionView s = SessionView.of(sessionRepository.findRows(List.of(id))).stream().findFirst().orElseThrow(
+                () -> new ResourceNotFoundException("Session not found with this id: " + id));
+        return ResponseEntity.ok().eTag(etag).body(s);
+    }
+
+    // current ETag of a session, null if it doesn't exist (anymore)
+    private String etag(Long id)
+    {
+        return sessionRepository.findVersionById(id).map(ETags::of).orElse(null);
+    }
+
+    // A posted session is always a new row with a generated id. Speakers in the body are only
+    // references by speaker_id: without a version they would look like new (transient) speakers to Hibernate.
+    // A speaker listed twice is linked once (session_speakers is unique).
+    private Session asNewSession(Session session)
+    {
+        session.setSession_id(null);
+        session.setVersion(null);
+        if (session.getSpeakers() != null) {
+            Map<Long, Speaker> speakers = session.getSpeakers().stream()
+                    .collect(Collectors.toMap(Speaker::getSpeaker_id,
+                            speaker -> speaker instanceof HibernateProxy
+                                    ? speaker : speakerRepository.getReferenceById(speaker.getSpeaker_id()),
+                            (first, again) -> first, LinkedHashMap::new));
+            session.setSpeakers(new ArrayList<>(speakers.values()));
+        }
+        return session;
     }
 
     @DeleteMapping("/sessions/{id}")
@@ -95,6 +333,12 @@ public class SessionsController {
                 () -> new ResourceNotFoundException("Session not found with this id: " + id));
 
         sessionRepository.delete(s);
+        changed(id, Change.DELETED);
+    }
+
+    private void changed(Long id, Change change)
+    {
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.SESSIONS, id, change));
     }
 
     @ExceptionHandler(ContentNotAllowedException.class)
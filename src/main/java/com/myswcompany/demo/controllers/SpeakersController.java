@@ -1,25 +1,55 @@
 package com.myswcompany.demo.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.events.EntityChangedEvent.Change;
 import com.myswcompany.demo.exceptions.ErrorDetails;
+import com.myswcompany.demo.exceptions.InvalidCursorException;
+import com.myswcompany.demo.exceptions.InvalidFieldsException;
 import com.myswcompany.demo.exceptions.ResourceNotFoundException;
+import com.myswcompany.demo.models.BatchItemResult;
+import com.myswcompany.demo.models.PatchOperation;
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.SessionView;
 import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.models.SpeakerView;
+import com.myswcompany.demo.repositories.SessionRepository;
 import com.myswcompany.demo.repositories.SpeakerRepository;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.hibernate.Cache;
+import com.myswcompany.demo.services.BatchWriter;
+import com.myswcompany.demo.services.CoalescedReads;
+import com.myswcompany.demo.services.NdjsonExporter;
+import com.myswcompany.demo.services.ReplaceWriter;
+import com.myswcompany.demo.services.ReplaceWriter.Replaced;
+import com.myswcompany.demo.services.SerializedListCache;
+import com.myswcompany.demo.services.SerializedListCache.SerializedList;
+import com.myswcompany.demo.services.SparseFieldsets;
+import com.myswcompany.demo.services.SpeakerPatchApplier;
+import com.myswcompany.demo.services.SpeakerWriteBehind;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.rmi.ServerException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 // POST is used to create new resource.
 // POST is not idempotent means calling the same request multiple times may create same resources multiple times.
@@ -37,38 +67,185 @@ import java.util.List;
 @RequestMapping("/api/v1")
 public class SpeakersController {
 
-    private ObjectMapper objectMapper = new ObjectMapper();
-
     @Autowired
     private SpeakerRepository speakerRepository;
 
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private ReplaceWriter replaceWriter;
+
+    @Autowired
+    private CoalescedReads coalescedReads;
+
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private SpeakerPatchApplier patchApplier;
+
+    @Autowired
+    private SpeakerWriteBehind writeBehind;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SerializedListCache listCache;
+
+    @Autowired
+    private SparseFieldsets sparseFieldsets;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Without cursor/limit the whole list is returned as before.
+    // With them the list is paged by keyset: GET /api/v1/speakers?limit=50, then
+    // GET /api/v1/speakers?limit=50&cursor=<X-Next-Cursor of the previous response>.
+    // X-Next-Cursor is only sent while there may be more rows.
+    //
+    // The list carries an ETag of the whole table (row count, max id, sum of versions),
+    // If-None-Match with that tag is answered with 304 before any speaker is loaded.
+    // Lists and pages are serialized (and gzipped) once per ETag, see SerializedListCache.
+    //
+    // Reads run in a read-only transaction on SpeakerView records, no entity is loaded.
+    // ?fields=first_name,last_name selects only those columns (plus speaker_id), see SparseFieldsets.
     @GetMapping("/speakers")
-    public List<Speaker> listAllSpeakers()
+    @Transactional(readOnly = true)
+    public ResponseEntity<byte[]> listAllSpeakers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) throws InvalidCursorException, InvalidFieldsException
     {
-        List<Speaker> speakers = speakerRepository.findAll(Sort.by(Sort.Direction.ASC, "firstName"));
-        return speakers;
+        Set<String> selected = sparseFieldsets.speakerFields(fields);
+        String etag = ETags.of(coalescedReads.speakerFingerprint());
+        if (webRequest.checkNotModified(etag)) {
+            // 304 Not Modified has already been set up by checkNotModified
+            return null;
+        }
+        String fieldsKey = selected == null ? null : String.join(",", selected);
+
+        if (cursor == null && limit == null) {
+            SerializedList list = listCache.get(EntityChangedEvent.SPEAKERS, etag, null, null, fieldsKey, () -> new SerializedListCache.Page(
+                    selected == null ? coalescedReads.allSpeakerViews() : sparseFieldsets.speakers(selected, null, null, null).items(), null));
+            return ListResponses.of(list, acceptEncoding);
+        }
+
+        int pageSize = KeysetCursor.pageSize(limit);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        SerializedList list = listCache.get(EntityChangedEvent.SPEAKERS, etag, cursor, pageSize, fieldsKey, () -> {
+            if (selected != null) {
+                SparseFieldsets.Slice slice = sparseFieldsets.speakers(selected,
+                        after == null ? null : after.sortKey(), after == null ? null : after.id(), pageSize);
+                return new SerializedListCache.Page(slice.items(), slice.items().size() == pageSize
+                        ? new KeysetCursor(slice.lastSortKey(), slice.lastId()).encode() : null);
+            }
+
+            List<SpeakerView> speakers = after == null
+                    ? speakerRepository.findFirstViewPage(PageRequest.of(0, pageSize))
+                    : speakerRepository.findViewPageAfter(after.sortKey(), after.id(), PageRequest.of(0, pageSize));
+            String nextCursor = null;
+            if (speakers.size() == pageSize) {
+                SpeakerView last = speakers.get(speakers.size() - 1);
+                nextCursor = new KeysetCursor(last.firstName(), last.speakerId()).encode();
+            }
+            return new SerializedListCache.Page(speakers, nextCursor);
+        });
+        return ListResponses.of(list, acceptEncoding);
     }
 
+    // Full export for sync jobs, one speaker per line (application/x-ndjson).
+    // Rows are streamed from a database cursor straight to the response, nothing is collected in memory.
+    @GetMapping(value = "/speakers/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSpeakers()
+    {
+        StreamingResponseBody body = ndjsonExporter.export(speakerRepository::streamAll);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // The ETag is the version of the speaker. A client sending it back in If-None-Match gets 304:
+    // the version comes from the query cache, the speaker itself isn't loaded or serialized.
+    // ?fields= works as for the list.
     @GetMapping
     @RequestMapping("/speakers/{id}")
-    public ResponseEntity<Speaker> getSpeakerById(
-            @PathVariable Long id) throws ResourceNotFoundException
+    @Transactional(readOnly = true)
+    public ResponseEntity<Object> getSpeakerById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) throws ResourceNotFoundException, InvalidFieldsException
     {
-        Speaker speaker = speakerRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Speaker not found: " + id));
-        return ResponseEntity.ok().body(speaker);
+        Set<String> selected = sparseFieldsets.speakerFields(fields);
+        // concurrent requests for the same speaker share the queries, see CoalescedReads
+        Long version = coalescedReads.speakerVersion(id).orElseThrow(() -> new ResourceNotFoundException("Speaker not found: " + id));
+        if (webRequest.checkNotModified(ETags.of(version))) {
+            return null;
+        }
+
+        if (selected != null) {
+            Map<String, Object> speaker = sparseFieldsets.speaker(selected, id).orElseThrow(() -> new ResourceNotFoundException("Speaker not found: " + id));
+            return ResponseEntity.ok().eTag(ETags.of(version)).body(speaker);
+        }
+        SpeakerView speaker = coalescedReads.speakerView(id).orElseThrow(() -> new ResourceNotFoundException("Speaker not found: " + id));
+        return ResponseEntity.ok().eTag(ETags.of(speaker.version())).body(speaker);
+    }
+
+    // The sessions of a speaker with all their speakers, same JSON and ETag as GET /api/v1/sessions
+    @GetMapping("/speakers/{id}/sessions")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<SessionView>> getSessionsOfSpeaker(
+            @PathVariable Long id,
+            WebRequest webRequest) throws ResourceNotFoundException
+    {
+        speakerRepository.findVersionById(id).orElseThrow(() -> new ResourceNotFoundException("Speaker not found: " + id));
+        String etag = ETags.of(coalescedReads.sessionFingerprint(), coalescedReads.speakerFingerprint());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok().eTag(etag).body(SessionView.of(speakerRepository.findSessionRows(id)));
     }
 
     @PostMapping("/speakers")
     public ResponseEntity<Speaker> createSpeaker(@Valid @RequestBody Speaker speaker) throws ServerException {
+        // POST always creates, an id in the body is ignored
+        speaker.setSpeaker_id(null);
         Speaker postedSpeaker = speakerRepository.saveAndFlush(speaker);
         if(postedSpeaker == null) {
             throw new ServerException("Something went wrong.");
         }
         else {
-            return new ResponseEntity<>(postedSpeaker, HttpStatus.CREATED);
+            changed(postedSpeaker.getSpeaker_id(), Change.CREATED);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(postedSpeaker.getVersion())).body(postedSpeaker);
         }
     }
 
+    // Bulk create for imports: POST /api/v1/speakers:batch
+    // Body is a JSON array of speakers or NDJSON (one speaker per line, Content-Type: application/x-ndjson).
+    // Every item is validated and inserted on its own, the response lists a status per item:
+    // [{"index":0,"status":201,"id":123,"errors":[]}, {"index":1,"status":400,"id":null,"errors":["lastName: ..."]}]
+    @PostMapping(value = "/speakers:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<List<BatchItemResult>> createSpeakers(InputStream body) throws IOException
+    {
+        List<BatchItemResult> results = batchWriter.insertAll(body, Speaker.class, null,
+                speaker -> {
+                    speaker.setSpeaker_id(null);
+                    speaker.setVersion(null);
+                    return speaker;
+                },
+                Speaker::getSpeaker_id);
+        results.stream().filter(result -> result.id() != null).forEach(result -> changed(result.id(), Change.CREATED));
+        return ResponseEntity.ok(results);
+    }
+
     // PATCH is used when we want to apply the partial update to the resource and
     // does not want to update the entire resource.
     //
@@ -95,45 +272,66 @@ public class SpeakersController {
 
     // @PatchMapping as s PATCH handler method
     // 1. find correct speaker record by calling findById(id) method
-    // 2. if speaker is found, invoke applyPatchToSpeaker method
+    // 2. if speaker is found, apply the patch with SpeakerPatchApplier
     // 3. invoke saveAndFlush to save record to db
     // 4. return 200 OK response to the client with the patched Speaker details in response
 
-    // in applyPatchToSpeaker method
-    // 1. JsonPatch holds list of operations to be applied to the target Speaker
-    // 2. convert target Speaker into the "com.fasterxml.jackson.databind.JsonNode" and
-    // pass it to the "JsonPatch.apply" method to apply the patch.
-    // 3. call objectMapper.treeToValue method, which binds the data in the patched
-    // com.fasterxml.jackson.databind.JsonNode to the Speaker type. This is our patched Speaker instance
-    // 4. return the patched Speaker instance
+    // SpeakerPatchApplier
+    // 1. add/replace/remove/test of text members (/first_name, /company, ...) are applied in place:
+    // straight to the setters of the loaded Speaker, no JsonNode trees, no detached copy to merge
+    // 2. anything else (move, copy, other paths) falls back to the generic path:
+    // convert target Speaker into a JsonNode, JsonPatch.apply, objectMapper.treeToValue back to a Speaker
+    //
+    // If-Match: "<version>" makes the update conditional, a stale version is answered with 412.
+    // Prefer: respond-async: the patched speaker is validated and queued, 202 (see SpeakerWriteBehind),
+    // unless the update is conditional (see respondAsync).
     @PatchMapping(value = "/speakers/{id}", consumes = "application/json-patch+json")
     public ResponseEntity<Speaker> updateSpeaker(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
             @Valid
-            @RequestBody JsonPatch patch) throws ResourceNotFoundException {
+            @RequestBody List<PatchOperation> patch) throws ResourceNotFoundException, IOException {
         try
         {
             Speaker currentSpeaker = speakerRepository.findById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Speaker not found: " + id));
+            if (!ETags.matches(ifMatch, ETags.of(currentSpeaker.getVersion()))) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
 
-            Speaker patched =  applyPatchToSpeaker(patch, currentSpeaker);
-            speakerRepository.saveAndFlush(patched);
+            if (respondAsync(prefer, ifMatch)) {
+                // the patch applies to what the speaker will be once the queued updates are written
+                Speaker base = writeBehind.withPending(currentSpeaker);
+                Speaker patched = writeBehind.withPending(currentSpeaker);
+                if (!patchApplier.applyInPlace(patch, patched)) {
+                    patched = patchApplier.applyGeneric(patchApplier.toJsonPatch(patch), patched);
+                }
+                return enqueue(id, base, patched);
+            }
 
-            return ResponseEntity.ok(patched);
+            Speaker saved;
+            if (patchApplier.applyInPlace(patch, currentSpeaker)) {
+                saved = speakerRepository.saveAndFlush(currentSpeaker);
+            } else {
+                Speaker patched = patchApplier.applyGeneric(patchApplier.toJsonPatch(patch), currentSpeaker);
+                // version isn't part of the JSON, without it the patched copy would be saved as a new speaker
+                patched.setVersion(currentSpeaker.getVersion());
+                saved = speakerRepository.saveAndFlush(patched);
+            }
+
+            changed(id, Change.UPDATED);
+            return ResponseEntity.ok().eTag(ETags.of(saved.getVersion())).body(saved);
         } catch (ResourceNotFoundException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalArgumentException ex) {
+            // not a valid JSON Patch document
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (JsonPatchException | JsonProcessingException ex) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    private Speaker applyPatchToSpeaker(JsonPatch patch, Speaker target) throws JsonPatchException, JsonProcessingException {
-        JsonNode patched = patch.apply(objectMapper.convertValue(target, JsonNode.class));
-        Speaker s = objectMapper.treeToValue(patched, Speaker.class);
-
-        return s;
-    }
-
     // When a client needs to replace an existing Resource entirely, they can use PUT.
     // When they're doing a partial update, they can use HTTP PATCH.
     // Another important aspect to consider here is idempotence.
@@ -141,28 +339,75 @@ public class SpeakersController {
 
     // @Valid annotation has to just before the request body parameter!!
     // Otherwise, validation wont work!!
+    //
+    // If-Match: "<version>" makes the update conditional, a stale version is answered with 412.
+    // Prefer: respond-async: an update of an existing speaker is queued, 202 (see SpeakerWriteBehind),
+    // unless the update is conditional (see respondAsync).
     @PutMapping(value = "/speakers/{id}")
     public ResponseEntity<Speaker> saveSpeaker(
             @PathVariable Long id,
-            @Valid @RequestBody Speaker new_speaker)  {
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @Valid @RequestBody Speaker new_speaker) throws IOException {
         // because this is a PUT, we expect all attributes to be passed in. A PATCH would only need what has changed.
         // if the URI isn't found, it will create a new speaker and store it in the database:
 
-        return speakerRepository.findById(id)
-                .map(speaker -> {
+        if (respondAsync(prefer, ifMatch)) {
+            Speaker current = speakerRepository.findById(id).orElse(null);
+            // creating a speaker stays synchronous, the client needs the generated id
+            if (current != null) {
+                return enqueue(id, writeBehind.withPending(current), new_speaker);
+            }
+        }
+
+        // Only changed columns are written and an unchanged body writes nothing, see ReplaceWriter
+        Replaced<Speaker> replaced = replaceWriter.replace(Speaker.class, id, Speaker::getVersion,
+                // If-Match can't match a speaker that doesn't exist (If-Match: * included)
+                version -> version == null ? ifMatch == null : ETags.matches(ifMatch, ETags.of(version)),
+                speaker -> {
                     speaker.setFirst_name(new_speaker.getFirst_name());
                     speaker.setLast_name(new_speaker.getLast_name());
                     speaker.setTitle(new_speaker.getTitle());
                     speaker.setCompany(new_speaker.getCompany());
                     speaker.setSpeaker_bio(new_speaker.getSpeaker_bio());
+                },
+                () -> {
+                    // always a new row with a generated id (a body without version is saved as new)
+                    new_speaker.setSpeaker_id(null);
+                    return new_speaker;
+                });
 
-                    var joo = speakerRepository.saveAndFlush(speaker);
+        Speaker joo = replaced.entity();
+        return switch (replaced.outcome()) {
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case CREATED -> {
+                changed(joo.getSpeaker_id(), Change.CREATED);
+                yield ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(joo.getVersion())).body(joo);
+            }
+            case UPDATED -> {
+                changed(id, Change.UPDATED);
+                yield ResponseEntity.ok().eTag(ETags.of(joo.getVersion())).body(joo);
+            }
+            case UNCHANGED -> ResponseEntity.ok().eTag(ETags.of(joo.getVersion())).body(joo);
+        };
+    }
 
-                    return new ResponseEntity<>(joo, HttpStatus.OK);
-                }).orElseGet(() -> {
-                    Speaker joo = speakerRepository.saveAndFlush(new_speaker);
-                    return new ResponseEntity<>(joo, HttpStatus.CREATED);
-                });
+    // Prefer: respond-async (RFC 7240), possibly among other preferences. It's only a preference, and a
+    // conditional update (If-Match) is made right away regardless: the version moves only when the queue is
+    // written, so two clients holding the same ETag would both get their update queued.
+    private static boolean respondAsync(String prefer, String ifMatch) {
+        return ifMatch == null && prefer != null && Arrays.stream(prefer.split("[,;]"))
+                .anyMatch(preference -> preference.trim().equalsIgnoreCase("respond-async"));
+    }
+
+    // Queues the fields of target that differ from base: 202, or 400 if target isn't a valid speaker
+    private ResponseEntity<Speaker> enqueue(Long id, Speaker base, Speaker target) throws IOException {
+        if (!validator.validate(target).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        writeBehind.enqueue(id, base, target);
+        return ResponseEntity.accepted().header("Preference-Applied", "respond-async").build();
     }
 
     @DeleteMapping(value = "/speakers/{id}")
@@ -171,11 +416,25 @@ public class SpeakersController {
         Speaker s = speakerRepository.findById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Speaker not found with this id: " + id));
 
-       speakerRepository.delete(s);
+        // Hibernate keeps Speaker and the sorted list queries in the second-level cache up to date itself,
+        // but the session_speakers rows are cached on the owning side (Session.speakers) and
+        // those entries are not evicted when a speaker goes away
+        List<Long> sessionIds = s.getSessions().stream().map(Session::getSession_id).toList();
+
+        speakerRepository.delete(s);
+
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        sessionIds.forEach(sessionId -> cache.evictCollectionData(Session.class.getName() + ".speakers", sessionId));
+        changed(id, Change.DELETED);
 
         return new ResponseEntity<>(id, HttpStatus.OK);
     }
 
+    private void changed(Long id, Change change)
+    {
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.SPEAKERS, id, change));
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<?> handleResourceNotFoundException(Throwable ex, WebRequest req)
     {
@@ -0,0 +1,26 @@
+package com.myswcompany.demo.controllers;
+
+import com.myswcompany.demo.models.Stats;
+import com.myswcompany.demo.services.StatsAggregates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1")
+public class StatsController {
+
+    @Autowired
+    private StatsAggregates statsAggregates;
+
+    // Dashboard figures: GET /api/v1/stats ->
+    // {"speakers":120,"speakersPerCompany":{"Acme":3,...},"sessions":80,"sessionsPerSpeaker":{"1":2,...},
+    //  "totalSessionLength":3600,"averageSessionLength":45.0}
+    // Answered from the counters of StatsAggregates, not from the database.
+    @GetMapping("/stats")
+    public Stats stats()
+    {
+        return statsAggregates.stats();
+    }
+}
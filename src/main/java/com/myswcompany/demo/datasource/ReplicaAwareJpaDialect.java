@@ -0,0 +1,52 @@
+package com.myswcompany.demo.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+// Hibernate's JPA dialect, plus: a read-only transaction that begins while the replicas may lag behind a write
+// (ReplicaPool.mayLag()) bypasses the second-level cache (CacheMode.IGNORE), so what it loads from the replica
+// isn't put into the cache every client shares: the replica may not have that write yet. CacheMode.GET would
+// keep the cache hits, but Hibernate 6.4 still puts query results after a query cache miss in that mode.
+// SerializedListCache follows the same cache mode. Reads themselves keep going to the replicas.
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    private record LaggingRead(Object transactionData, Session session, CacheMode previous) {
+    }
+
+    private final Supplier<ReplicaPool> replicaPool;
+
+    public ReplicaAwareJpaDialect(Supplier<ReplicaPool> replicaPool) {
+        this.replicaPool = replicaPool;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || !replicaPool.get().mayLag()) {
+            return transactionData;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        LaggingRead read = new LaggingRead(transactionData, session, session.getCacheMode());
+        session.setCacheMode(CacheMode.IGNORE);
+        return read;
+    }
+
+    // the entity manager may outlive the transaction (open-in-view), so its cache mode is put back
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof LaggingRead read) {
+            read.session().setCacheMode(read.previous());
+            transactionData = read.transactionData();
+        }
+        super.cleanupTransaction(transactionData);
+    }
+}
@@ -0,0 +1,183 @@
+package com.myswcompany.demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Connections of read-only transactions (the "read-only DataSource" of LazyConnectionDataSourceProxy).
+//
+// A connection comes from one of the healthy replicas, picked round-robin or by the fewest active connections.
+// It comes from the primary instead when
+// - the current request is pinned to it (read-your-writes, see ReadYourWritesFilter and pin())
+// - no replica is healthy, or the one picked fails to hand out a connection
+// For maxLag after a committed write (written()) a replica may not have that write yet. Reads still go to
+// the replicas, but don't populate the shared caches meanwhile, see mayLag() and ReplicaAwareJpaDialect.
+// Replicas are checked every healthCheckInterval, one that fails is skipped until it passes a check again.
+public class ReplicaPool extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaPool.class);
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    public enum Selection { ROUND_ROBIN, LEAST_CONNECTIONS }
+
+    public enum Target { REPLICA, PRIMARY }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long maxLagNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong lastWrite;
+    private final LongAdder[] connections = {new LongAdder(), new LongAdder()};
+    private final ScheduledExecutorService healthChecks;
+
+    public ReplicaPool(DataSource primary, List<HikariDataSource> replicas, Selection selection,
+                       Duration maxLag, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.maxLagNanos = maxLag.toNanos();
+        this.lastWrite = new AtomicLong(System.nanoTime() - maxLagNanos);
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("replica-health").factory());
+        this.healthChecks.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Read-only transactions of the current thread go to the primary until unpin()
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    public static boolean pinned() {
+        return PINNED.get() != null;
+    }
+
+    // Called after a write has been committed
+    public void written() {
+        lastWrite.set(System.nanoTime());
+    }
+
+    // true when a read of the current thread may come from a replica that doesn't have the last write yet
+    public boolean mayLag() {
+        return !pinned() && System.nanoTime() - lastWrite.get() < maxLagNanos;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = pinned() ? null : select();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                connections[Target.REPLICA.ordinal()].increment();
+                return connection;
+            } catch (SQLException ex) {
+                replica.down(ex);
+            }
+        }
+        connections[Target.PRIMARY.ordinal()].increment();
+        return primary.getConnection();
+    }
+
+    // Replica pools are built with the configured credentials (app.replicas.username/password)
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    // connections handed out for read-only transactions, by where they came from
+    public long connections(Target target) {
+        return connections[target.ordinal()].sum();
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        healthChecks.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private Replica select() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Replica selected = null;
+        for (int i = 0; i < size; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (!candidate.healthy) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return candidate;
+            }
+            // ties go to the first one after the round-robin position
+            if (selected == null || candidate.activeConnections() < selected.activeConnections()) {
+                selected = candidate;
+            }
+        }
+        return selected;
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(2)) {
+                    replica.up();
+                } else {
+                    replica.down(null);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                replica.down(ex);
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        final HikariDataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+        void up() {
+            if (!healthy) {
+                log.info("Replica {} is back", dataSource.getPoolName());
+                healthy = true;
+            }
+        }
+
+        void down(Exception ex) {
+            if (healthy) {
+                log.warn("Replica {} is down, reading from the primary until it recovers", dataSource.getPoolName(), ex);
+                healthy = false;
+            }
+        }
+    }
+}
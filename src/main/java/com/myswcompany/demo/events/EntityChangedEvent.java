@@ -0,0 +1,11 @@
+package com.myswcompany.demo.events;
+
+// Published by the controllers after a speaker or session has been written.
+// resource is the collection name of the API ("speakers", "sessions").
+public record EntityChangedEvent(String resource, Long id, Change change) {
+
+    public static final String SPEAKERS = "speakers";
+    public static final String SESSIONS = "sessions";
+
+    public enum Change { CREATED, UPDATED, DELETED }
+}
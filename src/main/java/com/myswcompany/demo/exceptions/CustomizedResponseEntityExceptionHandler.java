@@ -1,25 +1,40 @@
 package com.myswcompany.demo.exceptions;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 
 @ControllerAdvice
 public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExceptionHandler
 {
+    // Serialized 400 bodies by their error list: floods of invalid bodies repeat the same few violations
+    private final Cache<List<String>, byte[]> validationErrorBodies = Caffeine.newBuilder().maximumSize(1000).build();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // MethodArgumentNotValidException –>
     // This exception is thrown when an argument annotated with @Valid failed validation:
     @Override
@@ -38,7 +53,53 @@ public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExce
 
         Collections.sort(errors);
 
-        ApiError err = new ApiError(HttpStatus.BAD_REQUEST, "Validation error(s) occurred.", errors);
-        return handleExceptionInternal(ex, err, headers, err.getStatus(), request);
+        byte[] body = validationErrorBodies.get(errors, key -> {
+            try {
+                return objectMapper.writeValueAsBytes(new ApiError(HttpStatus.BAD_REQUEST, "Validation error(s) occurred.", key));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        HttpHeaders json = new HttpHeaders();
+        json.addAll(headers);
+        json.setContentType(MediaType.APPLICATION_JSON);
+        return handleExceptionInternal(ex, body, json, HttpStatus.BAD_REQUEST, request);
+    }
+
+    // InvalidCursorException ->
+    // thrown when the keyset pagination cursor of a list endpoint cannot be decoded:
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursorException(InvalidCursorException ex, WebRequest request)
+    {
+        ErrorDetails details = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(details, HttpStatus.BAD_REQUEST);
+    }
+
+    // InvalidFieldsException ->
+    // ?fields= of a read endpoint names a field the resource doesn't have:
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<Object> handleInvalidFieldsException(InvalidFieldsException ex, WebRequest request)
+    {
+        ErrorDetails details = new ErrorDetails(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(details, HttpStatus.BAD_REQUEST);
+    }
+
+    // UnknownSpeakersException ->
+    // speaker ids sent to /sessions/{id}/speakers that don't exist:
+    @ExceptionHandler(UnknownSpeakersException.class)
+    public ResponseEntity<Object> handleUnknownSpeakersException(UnknownSpeakersException ex, WebRequest request)
+    {
+        List<String> errors = ex.getSpeakerIds().stream().map(id -> "speaker_id: " + id + " not found").toList();
+        ApiError err = new ApiError(HttpStatus.BAD_REQUEST, ex.getMessage(), errors);
+        return new ResponseEntity<>(err, err.getStatus());
+    }
+
+    // ObjectOptimisticLockingFailureException ->
+    // the @Version check failed at flush time, someone else updated the row after it was read:
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex, WebRequest request)
+    {
+        ErrorDetails details = new ErrorDetails(new Date(), "Resource was modified concurrently, reload and retry.", request.getDescription(false));
+        return new ResponseEntity<>(details, HttpStatus.PRECONDITION_FAILED);
     }
 }
@@ -0,0 +1,12 @@
+package com.myswcompany.demo.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidFieldsException extends Exception {
+    private static final long serialVersionUID = 1L;
+    public InvalidFieldsException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -3,10 +3,12 @@ package com.myswcompany.demo.exceptions;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+// Thrown for every unknown id, often by clients probing ids: no stack trace is captured
+// (filling it in is most of the cost of a throw) and the handlers only need the message.
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends Exception {
     private static final long serialVersionUID = 1L;
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
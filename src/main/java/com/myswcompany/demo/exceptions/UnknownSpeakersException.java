@@ -0,0 +1,22 @@
+package com.myswcompany.demo.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class UnknownSpeakersException extends Exception {
+    private static final long serialVersionUID = 1L;
+    private final List<Long> speakerIds;
+
+    public UnknownSpeakersException(Collection<Long> speakerIds) {
+        super("Speakers not found: " + speakerIds, null, false, false);
+        this.speakerIds = List.copyOf(speakerIds);
+    }
+
+    public List<Long> getSpeakerIds() {
+        return speakerIds;
+    }
+}
@@ -0,0 +1,191 @@
+package com.myswcompany.demo.filters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myswcompany.demo.exceptions.ApiError;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cheap checks of JSON request bodies (POST/PUT/PATCH) before Jackson binds them and Bean Validation runs.
+//
+// The body is read into memory, at most maxBytes, and tokenized once with the streaming parser: it has to be
+// a single JSON object or array nested at most maxDepth deep. Anything else is answered right here with a
+// prebuilt ApiError, 413 for too large and 400 for malformed, without creating an entity, an exception or
+// a validation context. Bodies that pass are handed on from the buffer.
+// The :batch endpoints read their (possibly large) bodies item by item and are left alone.
+public class JsonBodyPrecheckFilter extends OncePerRequestFilter {
+
+    public enum Outcome { PASSED, MALFORMED, TOO_LARGE }
+
+    private final JsonFactory jsonFactory;
+    private final int maxBytes;
+    private final int maxDepth;
+    private final byte[] malformedBody;
+    private final byte[] tooLargeBody;
+    private final LongAdder[] counts = new LongAdder[Outcome.values().length];
+
+    public JsonBodyPrecheckFilter(ObjectMapper objectMapper, int maxBytes, int maxDepth) throws JsonProcessingException {
+        this.jsonFactory = objectMapper.getFactory();
+        this.maxBytes = maxBytes;
+        this.maxDepth = maxDepth;
+        this.malformedBody = objectMapper.writeValueAsBytes(new ApiError(HttpStatus.BAD_REQUEST,
+                "Malformed JSON request", List.of("body: expected a JSON object or array, at most " + maxDepth + " levels deep")));
+        this.tooLargeBody = objectMapper.writeValueAsBytes(new ApiError(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Request body too large", List.of("body: at most " + maxBytes + " bytes")));
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return switch (request.getMethod()) {
+            case "POST", "PUT", "PATCH" -> contentType == null || !contentType.contains("json")
+                    || contentType.startsWith(MediaType.APPLICATION_NDJSON_VALUE)
+                    || request.getRequestURI().endsWith(":batch");
+            default -> true;
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        byte[] body = request.getContentLengthLong() > maxBytes ? null : request.getInputStream().readNBytes(maxBytes + 1);
+        if (body == null || body.length > maxBytes) {
+            reject(response, Outcome.TOO_LARGE, HttpStatus.PAYLOAD_TOO_LARGE, tooLargeBody);
+            return;
+        }
+        if (!wellFormed(body)) {
+            reject(response, Outcome.MALFORMED, HttpStatus.BAD_REQUEST, malformedBody);
+            return;
+        }
+        counts[Outcome.PASSED.ordinal()].increment();
+        filterChain.doFilter(new BufferedBodyRequest(request, body), response);
+    }
+
+    // One object or array, not nested deeper than maxDepth, nothing after it
+    private boolean wellFormed(byte[] body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first != JsonToken.START_OBJECT && first != JsonToken.START_ARRAY) {
+                return false;
+            }
+            int depth = 1;
+            while (depth > 0) {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    return false;
+                }
+                if (token.isStructStart() && ++depth > maxDepth) {
+                    return false;
+                }
+                if (token.isStructEnd()) {
+                    depth--;
+                }
+            }
+            return parser.nextToken() == null;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private void reject(HttpServletResponse response, Outcome outcome, HttpStatus status, byte[] body) throws IOException {
+        counts[outcome.ordinal()].increment();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    public long count(Outcome outcome) {
+        return counts[outcome.ordinal()].sum();
+    }
+
+    // The request with its body already read
+    private static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is here already: it's available right away, then all read
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
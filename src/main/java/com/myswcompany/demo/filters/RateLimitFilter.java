@@ -0,0 +1,114 @@
+package com.myswcompany.demo.filters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+// Per-client rate limits and load shedding in front of /api.
+//
+// Every client (X-API-Key header, otherwise the remote address) gets a token bucket per endpoint group:
+// READ for GET/HEAD/OPTIONS, WRITE for everything else. A client over its limit gets 429 with Retry-After
+// set to when its next token is due. Before that, if more threads than maxPendingConnections are already
+// waiting for a JDBC connection, the request is shed with 503: it would only queue behind them and push
+// every response time towards connection-timeout.
+// Buckets of clients that have been idle for idleExpiry are dropped.
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    public enum Group { READ, WRITE }
+
+    public enum Outcome { ALLOWED, LIMITED, SHED }
+
+    public record Limit(double ratePerSecond, int burst) {
+    }
+
+    private final Limit readLimit;
+    private final Limit writeLimit;
+    private final IntSupplier pendingConnections;
+    private final int maxPendingConnections;
+    private final String shedRetryAfterSeconds;
+    private final Cache<String, TokenBucket> buckets;
+    // [group][outcome]
+    private final LongAdder[][] counts = new LongAdder[Group.values().length][Outcome.values().length];
+
+    public RateLimitFilter(Limit readLimit, Limit writeLimit, Duration idleExpiry,
+                           IntSupplier pendingConnections, int maxPendingConnections, Duration shedRetryAfter) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.pendingConnections = pendingConnections;
+        this.maxPendingConnections = maxPendingConnections;
+        this.shedRetryAfterSeconds = String.valueOf(Math.max(1, shedRetryAfter.toSeconds()));
+        this.buckets = Caffeine.newBuilder().expireAfterAccess(idleExpiry).build();
+        for (LongAdder[] byOutcome : counts) {
+            for (int i = 0; i < byOutcome.length; i++) {
+                byOutcome[i] = new LongAdder();
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Group group = groupOf(request);
+
+        if (pendingConnections.getAsInt() > maxPendingConnections) {
+            record(group, Outcome.SHED);
+            response.setHeader(HttpHeaders.RETRY_AFTER, shedRetryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is overloaded");
+            return;
+        }
+
+        Limit limit = group == Group.READ ? readLimit : writeLimit;
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(group + " " + clientOf(request),
+                key -> new TokenBucket(limit.ratePerSecond(), limit.burst(), now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            record(group, Outcome.LIMITED);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+            return;
+        }
+
+        record(group, Outcome.ALLOWED);
+        filterChain.doFilter(request, response);
+    }
+
+    private static Group groupOf(HttpServletRequest request) {
+        return switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS" -> Group.READ;
+            default -> Group.WRITE;
+        };
+    }
+
+    // The remote address is the proxy's unless server.forward-headers-strategy is set for the deployment
+    static String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && !apiKey.isBlank() ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    private void record(Group group, Outcome outcome) {
+        counts[group.ordinal()][outcome.ordinal()].increment();
+    }
+
+    public long count(Group group, Outcome outcome) {
+        return counts[group.ordinal()][outcome.ordinal()].sum();
+    }
+
+    public long trackedClients() {
+        return buckets.estimatedSize();
+    }
+}
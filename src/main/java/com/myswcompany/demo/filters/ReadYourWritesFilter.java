@@ -0,0 +1,54 @@
+package com.myswcompany.demo.filters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myswcompany.demo.datasource.ReplicaPool;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Read-your-writes with read replicas: for stickyWindow after a client (same key as RateLimitFilter) made a
+// write (a non-GET request answered with 2xx), its reads are served by the primary, so it sees its own change
+// even while the replicas lag behind. Other clients keep reading from the replicas.
+// Only the request thread is pinned, the async NDJSON exports still read from a replica.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(stickyWindow).build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = RateLimitFilter.clientOf(request);
+
+        switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS" -> {
+                if (recentWriters.getIfPresent(client) == null) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                ReplicaPool.pin();
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    ReplicaPool.unpin();
+                }
+            }
+            default -> {
+                filterChain.doFilter(request, response);
+                // rejected requests (400, 404, 412, ...) didn't write anything
+                if (response.getStatus() >= 200 && response.getStatus() < 300) {
+                    recentWriters.put(client, Boolean.TRUE);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.myswcompany.demo.models;
+
+import java.util.List;
+
+// Outcome of one item of a :batch request, index is the position of the item in the request body
+public record BatchItemResult(int index, int status, Long id, List<String> errors) {
+}
@@ -0,0 +1,5 @@
+package com.myswcompany.demo.models;
+
+// Counters of one second-level cache region, see GET /api/v1/cache/statistics
+public record CacheRegionStats(String region, long hits, long misses, long puts, long evictions) {
+}
@@ -0,0 +1,8 @@
+package com.myswcompany.demo.models;
+
+import java.time.Instant;
+
+// One event of /api/v1/changes: seq is increasing and not reused by a later run of the application,
+// change is "created", "updated" or "deleted"
+public record ChangeFeedEntry(long seq, String resource, Long id, String change, Instant time) {
+}
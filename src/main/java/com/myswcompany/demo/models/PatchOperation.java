@@ -0,0 +1,11 @@
+package com.myswcompany.demo.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+// One operation of a JSON Patch document (RFC 6902), e.g.
+// {"op":"replace", "path":"/first_name", "value":"moi vaan"}
+// value is a NullNode for an explicit "value": null and null when the member is missing.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PatchOperation(String op, String path, String from, JsonNode value) {
+}
@@ -0,0 +1,5 @@
+package com.myswcompany.demo.models;
+
+// One result of /api/v1/search: resource is "speakers" or "sessions", title is what a result list shows
+public record SearchHit(String resource, Long id, String title, double score) {
+}
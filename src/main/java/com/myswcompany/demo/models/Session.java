@@ -1,16 +1,27 @@
 package com.myswcompany.demo.models;
 import jakarta.persistence.*;
 import java.util.List;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Table(name = "sessions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sessions")
+// updates set only the changed columns, see Speaker
+@DynamicUpdate
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Session {
 
+    // pooled sequence, see Speaker.speakerId and scripts/migrations/002-pooled-id-sequences.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "sessions_session_id_seq", allocationSize = 50)
     @Column(name = "session_id")
     private Long sessionId;
 
@@ -32,11 +43,23 @@ public class Session {
     @Column(name = "session_length")
     private Integer sessionLength;
 
+    // optimistic locking, also the ETag of the session. Not part of the JSON body, sent as ETag header instead.
+    // Column added by scripts/migrations/001-version-columns.sql
+    @Version
+    @Column(name = "version")
+    @JsonIgnore
+    private Long version;
+
+    // Lazy speakers of up to 100 sessions in the persistence context are loaded with one IN query.
     @ManyToMany
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "session-speakers")
     @JoinTable(
             name = "session_speakers",
             joinColumns = @JoinColumn(name = "session_id"),
-            inverseJoinColumns = @JoinColumn(name = "speaker_id"))
+            inverseJoinColumns = @JoinColumn(name = "speaker_id"),
+            // a speaker is linked once, see SessionSpeakerLinks (scripts/migrations/003-session-speakers-unique.sql)
+            uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "speaker_id"}))
     private List<Speaker> speakers;
 
     public Session()
@@ -50,6 +73,14 @@ public class Session {
         this.speakers = speakers;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getSession_id() {
         return sessionId;
     }
@@ -0,0 +1,6 @@
+package com.myswcompany.demo.models;
+
+// Length of a session and one of its speakers, see SessionRepository.findLinks.
+// speakerId is null for a session without speakers.
+public record SessionLink(Long sessionId, Integer sessionLength, Long speakerId) {
+}
@@ -0,0 +1,15 @@
+package com.myswcompany.demo.models;
+
+// One row of "sessions left join session_speakers left join speakers", see SessionRepository.findAllRows.
+// speaker is null for a session without speakers.
+public record SessionRow(Long sessionId, String sessionName, String sessionDescription, Integer sessionLength, Long version,
+                         SpeakerView speaker) {
+
+    // constructor expression of the queries, one argument per selected column
+    public SessionRow(Long sessionId, String sessionName, String sessionDescription, Integer sessionLength, Long version,
+                      Long speakerId, String firstName, String lastName, String title, String company, String speakerBio,
+                      Long speakerVersion) {
+        this(sessionId, sessionName, sessionDescription, sessionLength, version, speakerId == null ? null
+                : new SpeakerView(speakerId, firstName, lastName, title, company, speakerBio, speakerVersion));
+    }
+}
@@ -0,0 +1,13 @@
+package com.myswcompany.demo.models;
+
+// What the ETag of a single session is built from: its own version and a fingerprint of its speakers,
+// whose names, titles and bios are part of the body. Changing the set of speakers increments the session
+// version; updating a speaker increments that speaker's version and so speakers.versionSum, deleting one
+// lowers speakers.rows. See SessionRepository.findVersionById.
+public record SessionVersion(Long version, TableFingerprint speakers) {
+
+    // constructor expression of the query
+    public SessionVersion(Long version, long speakerRows, long maxSpeakerId, long speakerVersionSum) {
+        this(version, new TableFingerprint(speakerRows, maxSpeakerId, speakerVersionSum));
+    }
+}
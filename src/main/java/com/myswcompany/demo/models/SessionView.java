@@ -0,0 +1,33 @@
+package com.myswcompany.demo.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read-only projection of a session with its speakers, same JSON as the Session entity
+public record SessionView(
+        @JsonProperty("session_id") Long sessionId,
+        @JsonProperty("session_name") String sessionName,
+        @JsonProperty("session_description") String sessionDescription,
+        @JsonProperty("session_length") Integer sessionLength,
+        List<SpeakerView> speakers,
+        // the ETag, not part of the JSON body
+        @JsonIgnore Long version) {
+
+    // One SessionView per session of the (session, speaker) rows, in the order of the rows
+    public static List<SessionView> of(List<SessionRow> rows) {
+        Map<Long, SessionView> sessions = new LinkedHashMap<>();
+        for (SessionRow row : rows) {
+            SessionView session = sessions.computeIfAbsent(row.sessionId(), id -> new SessionView(id, row.sessionName(),
+                    row.sessionDescription(), row.sessionLength(), new ArrayList<>(), row.version()));
+            if (row.speaker() != null) {
+                session.speakers().add(row.speaker());
+            }
+        }
+        return new ArrayList<>(sessions.values());
+    }
+}
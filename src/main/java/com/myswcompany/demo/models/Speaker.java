@@ -6,16 +6,29 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.Type;
 
 import java.util.List;
 
 @Entity(name = "speakers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "speakers")
+// UPDATE statements set only the changed columns (and version) instead of all of them: a PUT or PATCH that
+// changes the title doesn't rewrite the 2000 character bio. The statement isn't cached per entity then,
+// Hibernate builds it per flush
+@DynamicUpdate
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Speaker {
 
+    // pooled sequence instead of IDENTITY: Hibernate reserves 50 ids per nextval call
+    // and can send inserts as JDBC batches (IDENTITY needs one round trip per row to get the id back).
+    // The database sequence has to be altered to match, see scripts/migrations/002-pooled-id-sequences.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "speakers_seq")
+    @SequenceGenerator(name = "speakers_seq", sequenceName = "speakers_speaker_id_seq", allocationSize = 50)
     @Column(name = "speaker_id")
     // https://stackoverflow.com/questions/23456197/spring-data-jpa-repository-underscore-on-entity-column-name
     private Long speakerId;
@@ -42,6 +55,13 @@ public class Speaker {
     @Column(name = "speaker_bio")
     private String speakerBio;
 
+    // optimistic locking, also the ETag of the speaker. Not part of the JSON body, sent as ETag header instead.
+    // Column added by scripts/migrations/001-version-columns.sql
+    @Version
+    @Column(name = "version")
+    @JsonIgnore
+    private Long version;
+
     //@Lob
     //@Type(type="org.hibernate.type.BinaryType")
     //private byte[] speaker_photo;
@@ -69,6 +89,14 @@ public class Speaker {
         this.sessions = sessions;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getSpeaker_id() {
         return speakerId;
     }
@@ -0,0 +1,5 @@
+package com.myswcompany.demo.models;
+
+// Company of one speaker, see SpeakerRepository.findCompanies
+public record SpeakerCompany(Long speakerId, String company) {
+}
@@ -0,0 +1,17 @@
+package com.myswcompany.demo.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// Read-only projection of a speaker, selected column by column (SpeakerRepository.findAllViews etc.).
+// Same JSON as the Speaker entity, without a managed entity, proxy or dirty-checking snapshot behind it.
+public record SpeakerView(
+        @JsonProperty("speaker_id") Long speakerId,
+        @JsonProperty("first_name") String firstName,
+        @JsonProperty("last_name") String lastName,
+        String title,
+        String company,
+        @JsonProperty("speaker_bio") String speakerBio,
+        // the ETag, not part of the JSON body
+        @JsonIgnore Long version) {
+}
@@ -0,0 +1,9 @@
+package com.myswcompany.demo.models;
+
+import java.util.Map;
+
+// Body of GET /api/v1/stats. sessionsPerSpeaker is keyed by speaker_id, averageSessionLength is taken
+// over the sessions that have a length (0 without any). The maps are read-only views of the live counters.
+public record Stats(long speakers, Map<String, Long> speakersPerCompany, long sessions, Map<Long, Integer> sessionsPerSpeaker,
+                    long totalSessionLength, double averageSessionLength) {
+}
@@ -0,0 +1,8 @@
+package com.myswcompany.demo.models;
+
+// Cheap summary of a whole table, used as the ETag of the list endpoints (and of the speakers of one session,
+// see SessionVersion).
+// Any insert, update or delete changes at least one of the values:
+// inserts/deletes change rows (and inserts maxId), every update increments one row version and so versionSum.
+public record TableFingerprint(long rows, long maxId, long versionSum) {
+}
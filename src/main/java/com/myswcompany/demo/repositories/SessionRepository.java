@@ -1,7 +1,92 @@
 package com.myswcompany.demo.repositories;
 
 import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.SessionLink;
+import com.myswcompany.demo.models.SessionRow;
+import com.myswcompany.demo.models.SessionVersion;
+import com.myswcompany.demo.models.TableFingerprint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SessionRepository extends JpaRepository<Session, Long> {
+
+    // The read endpoints select SessionRow records (one per session and speaker) column by column and group them
+    // into SessionViews: no entities, proxies or dirty-checking snapshots, and the persistence context stays empty.
+
+    // Full listing, sessions and their speakers in one statement instead of N + 1.
+    // The result is kept in the "session-lists" query cache region until the next write to the tables.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "session-lists")
+    })
+    @Query("select new com.myswcompany.demo.models.SessionRow(s.sessionId, s.sessionName, s.sessionDescription, " +
+            "s.sessionLength, s.version, sp.speakerId, sp.firstName, sp.lastName, sp.title, sp.company, sp.speakerBio, " +
+            "sp.version) from Session s left join s.speakers sp " +
+            "order by s.sessionName asc, s.sessionId asc")
+    List<SessionRow> findAllRows();
+
+    // The sessions of a page (or a single session) with their speakers
+    @Query("select new com.myswcompany.demo.models.SessionRow(s.sessionId, s.sessionName, s.sessionDescription, " +
+            "s.sessionLength, s.version, sp.speakerId, sp.firstName, sp.lastName, sp.title, sp.company, sp.speakerBio, " +
+            "sp.version) from Session s left join s.speakers sp " +
+            "where s.sessionId in :ids order by s.sessionName asc, s.sessionId asc")
+    List<SessionRow> findRows(@Param("ids") Collection<Long> ids);
+
+    // A page is seeked on the ids first (a join would make the limit count speakers instead of sessions),
+    // then loaded with findRows: two statements per page.
+
+    // Keyset pagination: first page ordered by session name, session id as tie-breaker.
+    // Always pass PageRequest.of(0, limit): the offset stays 0, the cursor does the seeking.
+    @Query("select s.sessionId from Session s order by s.sessionName asc, s.sessionId asc")
+    List<Long> findFirstPageIds(Pageable pageable);
+
+    // Keyset pagination: next page after (sessionName, sessionId) of the last row already returned.
+    // Backed by an index on (session_name, session_id) every page costs the same as the first one.
+    @Query("select s.sessionId from Session s where (s.sessionName, s.sessionId) > (:sessionName, :sessionId) " +
+            "order by s.sessionName asc, s.sessionId asc")
+    List<Long> findPageIdsAfter(@Param("sessionName") String sessionName,
+                                @Param("sessionId") Long sessionId,
+                                Pageable pageable);
+
+    // Forward-only cursor over the whole table for exports. Must be consumed inside a transaction
+    // and closed afterwards. Fetch size 500 = NdjsonExporter.BATCH_SIZE, rows are loaded read-only.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from Session s order by s.sessionId")
+    Stream<Session> streamAll();
+
+    // Version of a single session and its speakers for ETag checks, answered from the query cache without
+    // loading the entities.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.myswcompany.demo.models.SessionVersion(s.version, count(sp), " +
+            "coalesce(max(sp.speakerId), 0L), coalesce(sum(sp.version), 0L)) " +
+            "from Session s left join s.speakers sp where s.sessionId = :id group by s.sessionId, s.version")
+    Optional<SessionVersion> findVersionById(@Param("id") Long id);
+
+    // ETag source of the list endpoint, cached until the next write to the table.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.myswcompany.demo.models.TableFingerprint(" +
+            "count(s), coalesce(max(s.sessionId), 0L), coalesce(sum(s.version), 0L)) from Session s")
+    TableFingerprint fingerprint();
+
+    // Rebuild of StatsAggregates: length and speaker ids of every session, one row per link
+    @Query("select new com.myswcompany.demo.models.SessionLink(s.sessionId, s.sessionLength, sp.speakerId) " +
+            "from Session s left join s.speakers sp")
+    List<SessionLink> findLinks();
+
+    @Query("select new com.myswcompany.demo.models.SessionLink(s.sessionId, s.sessionLength, sp.speakerId) " +
+            "from Session s left join s.speakers sp where s.sessionId = :id")
+    List<SessionLink> findLinks(@Param("id") Long id);
 }
@@ -1,7 +1,93 @@
 package com.myswcompany.demo.repositories;
 
+import com.myswcompany.demo.models.SessionRow;
 import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.models.SpeakerCompany;
+import com.myswcompany.demo.models.SpeakerView;
+import com.myswcompany.demo.models.TableFingerprint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SpeakerRepository extends JpaRepository<Speaker, Long> {
+
+    // The read endpoints select SpeakerView records column by column: no entities, proxies or
+    // dirty-checking snapshots, and the persistence context stays empty.
+
+    // Sorted full listing, kept in the "speaker-lists" query cache region until the next write to the table.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "speaker-lists")
+    })
+    @Query("select new com.myswcompany.demo.models.SpeakerView(s.speakerId, s.firstName, s.lastName, s.title, s.company, " +
+            "s.speakerBio, s.version) from speakers s order by s.firstName asc, s.speakerId asc")
+    List<SpeakerView> findAllViews();
+
+    // Keyset pagination: first page ordered by first name, speaker id as tie-breaker.
+    // Always pass PageRequest.of(0, limit): the offset stays 0, the cursor does the seeking.
+    @Query("select new com.myswcompany.demo.models.SpeakerView(s.speakerId, s.firstName, s.lastName, s.title, s.company, " +
+            "s.speakerBio, s.version) from speakers s order by s.firstName asc, s.speakerId asc")
+    List<SpeakerView> findFirstViewPage(Pageable pageable);
+
+    // Keyset pagination: next page after (firstName, speakerId) of the last row already returned.
+    // Backed by an index on (first_name, speaker_id) every page costs the same as the first one.
+    @Query("select new com.myswcompany.demo.models.SpeakerView(s.speakerId, s.firstName, s.lastName, s.title, s.company, " +
+            "s.speakerBio, s.version) from speakers s where (s.firstName, s.speakerId) > (:firstName, :speakerId) " +
+            "order by s.firstName asc, s.speakerId asc")
+    List<SpeakerView> findViewPageAfter(@Param("firstName") String firstName,
+                                        @Param("speakerId") Long speakerId,
+                                        Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.myswcompany.demo.models.SpeakerView(s.speakerId, s.firstName, s.lastName, s.title, s.company, " +
+            "s.speakerBio, s.version) from speakers s where s.speakerId = :id")
+    Optional<SpeakerView> findViewById(@Param("id") Long id);
+
+    // The sessions of a speaker through the mappedBy side (Speaker.sessions), with all their speakers,
+    // in one statement. Rows are grouped with SessionView.of like the session list.
+    @Query("select new com.myswcompany.demo.models.SessionRow(s.sessionId, s.sessionName, s.sessionDescription, " +
+            "s.sessionLength, s.version, sp.speakerId, sp.firstName, sp.lastName, sp.title, sp.company, sp.speakerBio, " +
+            "sp.version) from speakers x join x.sessions s left join s.speakers sp " +
+            "where x.speakerId = :id order by s.sessionName asc, s.sessionId asc")
+    List<SessionRow> findSessionRows(@Param("id") Long id);
+
+    // Which of the given ids exist, one IN query
+    @Query("select s.speakerId from speakers s where s.speakerId in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Forward-only cursor over the whole table for exports. Must be consumed inside a transaction
+    // and closed afterwards. Fetch size 500 = NdjsonExporter.BATCH_SIZE, rows are loaded read-only.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from speakers s order by s.speakerId")
+    Stream<Speaker> streamAll();
+
+    // Rebuild of StatsAggregates: the company of every speaker, two columns per row
+    @Query("select new com.myswcompany.demo.models.SpeakerCompany(s.speakerId, s.company) from speakers s")
+    List<SpeakerCompany> findCompanies();
+
+    @Query("select s.company from speakers s where s.speakerId = :id")
+    Optional<String> findCompanyById(@Param("id") Long id);
+
+    // Version of a single row for ETag checks, answered from the query cache without loading the entity.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select s.version from speakers s where s.speakerId = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // ETag source of the list endpoint, cached until the next write to the table.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.myswcompany.demo.models.TableFingerprint(" +
+            "count(s), coalesce(max(s.speakerId), 0L), coalesce(sum(s.version), 0L)) from speakers s")
+    TableFingerprint fingerprint();
 }
@@ -0,0 +1,166 @@
+package com.myswcompany.demo.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myswcompany.demo.models.BatchItemResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Bulk inserts for the :batch endpoints.
+//
+// The body (a JSON array or NDJSON) is read item by item, every item is validated on its own and
+// the valid ones are persisted CHUNK_SIZE at a time in one transaction. With a pooled sequence id
+// and hibernate.jdbc.batch_size Hibernate sends each chunk as a single JDBC batch.
+// If a chunk fails, its items are retried one per transaction so only the broken ones are reported.
+@Component
+public class BatchWriter {
+
+    // keep in line with spring.jpa.properties.hibernate.jdbc.batch_size
+    public static final int CHUNK_SIZE = 50;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // rule:    extra business check, returns an error message or null
+    // prepare: turns a parsed item into a new entity ready to be persisted (no id, no version),
+    //          applied again before a failed chunk is retried
+    public <T> List<BatchItemResult> insertAll(InputStream body, Class<T> type,
+                                               Function<T, String> rule,
+                                               UnaryOperator<T> prepare,
+                                               Function<T, Long> idOf) throws IOException {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Integer> chunkIndexes = new ArrayList<>(CHUNK_SIZE);
+
+        int index = 0;
+        try (MappingIterator<T> items = objectMapper.readerFor(type).readValues(body)) {
+            while (true) {
+                T item;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    item = items.nextValue();
+                } catch (IOException ex) {
+                    // the rest of the body can't be read reliably, stop here
+                    results.add(new BatchItemResult(index, HttpStatus.BAD_REQUEST.value(), null,
+                            List.of("Malformed item, import stopped: " + (ex instanceof JsonProcessingException jpe
+                                    ? jpe.getOriginalMessage() : ex.getMessage()))));
+                    break;
+                }
+
+                List<String> errors = validate(item, rule);
+                if (!errors.isEmpty()) {
+                    results.add(new BatchItemResult(index, HttpStatus.BAD_REQUEST.value(), null, errors));
+                } else {
+                    chunk.add(prepare.apply(item));
+                    chunkIndexes.add(index);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        results.addAll(persist(chunk, chunkIndexes, prepare, idOf));
+                        chunk.clear();
+                        chunkIndexes.clear();
+                    }
+                }
+                index++;
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(persist(chunk, chunkIndexes, prepare, idOf));
+        }
+
+        results.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return results;
+    }
+
+    private <T> List<String> validate(T item, Function<T, String> rule) {
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<T> violation : validator.validate(item)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (errors.isEmpty() && rule != null) {
+            String error = rule.apply(item);
+            if (error != null) {
+                errors.add(error);
+            }
+        }
+        errors.sort(null);
+        return errors;
+    }
+
+    private <T> List<BatchItemResult> persist(List<T> chunk, List<Integer> indexes,
+                                              UnaryOperator<T> prepare, Function<T, Long> idOf) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        try {
+            tx.executeWithoutResult(status -> {
+                chunk.forEach(entityManager::persist);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(new BatchItemResult(indexes.get(i), HttpStatus.CREATED.value(), idOf.apply(chunk.get(i)), List.of()));
+            }
+        } catch (RuntimeException chunkFailure) {
+            entityManager.clear();
+            for (int i = 0; i < chunk.size(); i++) {
+                // the rolled back chunk already got ids and versions assigned
+                results.add(persistOne(tx, prepare.apply(chunk.get(i)), indexes.get(i), idOf));
+            }
+        }
+        return results;
+    }
+
+    private <T> BatchItemResult persistOne(TransactionTemplate tx, T item, int index, Function<T, Long> idOf) {
+        try {
+            tx.executeWithoutResult(status -> {
+                entityManager.persist(item);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            return new BatchItemResult(index, HttpStatus.CREATED.value(), idOf.apply(item), List.of());
+        } catch (RuntimeException ex) {
+            entityManager.clear();
+            // constraint violations (unknown speaker id, duplicate key, ...) are the client's problem
+            HttpStatus status = isConstraintViolation(ex) ? HttpStatus.CONFLICT : HttpStatus.INTERNAL_SERVER_ERROR;
+            return new BatchItemResult(index, status.value(), null,
+                    List.of(NestedExceptionUtils.getMostSpecificCause(ex).getMessage()));
+        }
+    }
+
+    // flush() on the EntityManager isn't translated to Spring's DataAccessException hierarchy
+    private static boolean isConstraintViolation(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
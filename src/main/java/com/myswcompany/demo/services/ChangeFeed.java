@@ -0,0 +1,208 @@
+package com.myswcompany.demo.services;
+
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.models.ChangeFeedEntry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Change-data feed of /api/v1/changes, built from the EntityChangedEvents of the controllers.
+//
+// The last bufferSize changes are kept in a ring buffer, numbered in the order they were committed. Numbers
+// continue from the start time of the run (millis << 10, see RUN_SEQ_SHIFT), so they don't repeat after a
+// restart and a client resuming with a number from an earlier run gets a reset.
+// Publishing only takes the lock to store an entry: subscribers never hold up a write. Every subscriber
+// has a virtual thread that copies what it hasn't seen yet out of the buffer and writes it to its client,
+// so a slow client only delays itself. A client that falls more than bufferSize changes behind (or asks
+// for changes no longer in the buffer) gets a reset event: it has to re-read the lists, the stream
+// continues with the changes after that point.
+@Component
+public class ChangeFeed implements MeterBinder {
+
+    public enum Format { SSE, NDJSON }
+
+    // changes written per send
+    private static final int BATCH_SIZE = 100;
+
+    // 1024 numbers per millisecond the run lasts before they could reach those of the next run,
+    // and below 2^53 (exact as a JavaScript number) for the next two hundred years
+    private static final int RUN_SEQ_SHIFT = 10;
+
+    private static final ThreadFactory STREAMS = Thread.ofVirtual().name("change-feed-", 0).factory();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final ChangeFeedEntry[] ring;
+    // seq of this run's first change - 1
+    private final long start;
+    private long last;
+
+    private final int maxSubscribers;
+    private final Duration streamDuration;
+    private final Duration heartbeat;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final LongAdder resets = new LongAdder();
+
+    public ChangeFeed(@Value("${app.changes.buffer-size}") int bufferSize,
+                      @Value("${app.changes.max-subscribers}") int maxSubscribers,
+                      @Value("${app.changes.stream-duration}") Duration streamDuration,
+                      @Value("${app.changes.heartbeat}") Duration heartbeat) {
+        this.ring = new ChangeFeedEntry[bufferSize];
+        this.start = System.currentTimeMillis() << RUN_SEQ_SHIFT;
+        this.last = start;
+        this.maxSubscribers = maxSubscribers;
+        this.streamDuration = streamDuration;
+        this.heartbeat = heartbeat;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        String change = event.change().name().toLowerCase(Locale.ROOT);
+        lock.lock();
+        try {
+            long seq = ++last;
+            ring[(int) (seq % ring.length)] = new ChangeFeedEntry(seq, event.resource(), event.id(), change, Instant.now());
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // seq of the newest change, before the first one the number this run's numbers start after
+    public long lastSeq() {
+        lock.lock();
+        try {
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Up to max changes after seq `after`, waiting up to timeout for one if there are none yet.
+    // Empty if the changes right after `after` are gone (overwritten, or `after` is from another run).
+    public Optional<List<ChangeFeedEntry>> read(long after, int max, Duration timeout) throws InterruptedException {
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (after == last && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            if (after > last || after < Math.max(start, last - ring.length)) {
+                return Optional.empty();
+            }
+            List<ChangeFeedEntry> entries = new ArrayList<>((int) Math.min(max, last - after));
+            for (long seq = after + 1; seq <= last && entries.size() < max; seq++) {
+                entries.add(ring[(int) (seq % ring.length)]);
+            }
+            return Optional.of(entries);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The stream of changes after seq `after` (null: from now on), empty when maxSubscribers are streaming
+    public Optional<ResponseBodyEmitter> subscribe(Long after, Format format) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            return Optional.empty();
+        }
+        // the loop ends the stream itself, the timeout is only a safety net
+        long timeout = streamDuration.plus(heartbeat).toMillis();
+        ResponseBodyEmitter emitter = format == Format.SSE ? new SseEmitter(timeout) : new ResponseBodyEmitter(timeout);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(ex -> open.set(false));
+        long from = after == null ? lastSeq() : after;
+
+        STREAMS.newThread(() -> {
+            try {
+                stream(emitter, format, from, open);
+                emitter.complete();
+            } catch (IOException ex) {
+                // the client went away
+            } catch (InterruptedException ex) {
+                emitter.complete();
+            } finally {
+                subscribers.decrementAndGet();
+            }
+        }).start();
+        return Optional.of(emitter);
+    }
+
+    private void stream(ResponseBodyEmitter emitter, Format format, long from, AtomicBoolean open)
+            throws IOException, InterruptedException {
+        long cursor = from;
+        long deadline = System.nanoTime() + streamDuration.toNanos();
+        while (open.get() && System.nanoTime() < deadline) {
+            Optional<List<ChangeFeedEntry>> entries = read(cursor, BATCH_SIZE, heartbeat);
+            if (entries.isEmpty()) {
+                resets.increment();
+                cursor = lastSeq();
+                send(emitter, format, cursor, "reset", Map.of("seq", cursor));
+            } else if (entries.get().isEmpty()) {
+                // keep-alive, also how a closed connection is noticed
+                if (format == Format.SSE) {
+                    ((SseEmitter) emitter).send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    emitter.send("\n", MediaType.TEXT_PLAIN);
+                }
+            } else {
+                for (ChangeFeedEntry entry : entries.get()) {
+                    send(emitter, format, entry.seq(), entry.change(), entry);
+                }
+                cursor = entries.get().get(entries.get().size() - 1).seq();
+            }
+        }
+    }
+
+    // SSE: "id: <seq>", "event: created|updated|deleted|reset", "data: <json>"; NDJSON: the json and a newline
+    private static void send(ResponseBodyEmitter emitter, Format format, long seq, String name, Object data) throws IOException {
+        if (format == Format.SSE) {
+            ((SseEmitter) emitter).send(SseEmitter.event().id(Long.toString(seq)).name(name).data(data, MediaType.APPLICATION_JSON));
+        } else {
+            emitter.send(name.equals("reset") ? Map.of("reset", seq) : data, MediaType.APPLICATION_JSON);
+            emitter.send("\n", MediaType.TEXT_PLAIN);
+        }
+    }
+
+    public int subscribers() {
+        return subscribers.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.changes.subscribers", this, ChangeFeed::subscribers)
+                .description("Open /api/v1/changes streams")
+                .register(registry);
+        // the numbers themselves are too large for a double
+        Gauge.builder("app.changes.sequence", this, feed -> feed.lastSeq() - feed.start)
+                .description("Changes published since the start of the run")
+                .register(registry);
+        FunctionCounter.builder("app.changes.resets", resets, LongAdder::sum)
+                .description("Streams that had to skip changes no longer in the buffer")
+                .register(registry);
+    }
+}
@@ -0,0 +1,119 @@
+package com.myswcompany.demo.services;
+
+import com.myswcompany.demo.datasource.ReplicaPool;
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.models.SessionRow;
+import com.myswcompany.demo.models.SessionVersion;
+import com.myswcompany.demo.models.SpeakerView;
+import com.myswcompany.demo.models.TableFingerprint;
+import com.myswcompany.demo.repositories.SessionRepository;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// The repository reads of the GET endpoints, single-flighted: when a popular speaker is shared, the
+// concurrent GET /speakers/{id} requests after a cache miss or an invalidation share one query instead of
+// each running their own. Only read models are shared (records, never managed entities), they are the same
+// whichever persistence context loaded them.
+// Every write forgets the running loads of what it touched (EntityChangedEvent, after commit), so a
+// client reading its own write never gets a result that was loaded before it. A client pinned to the primary
+// right after its write (ReplicaPool.pin()) doesn't share loads at all: one started by another client after the
+// commit may still be reading a replica that doesn't have the write yet.
+@Component
+public class CoalescedReads implements MeterBinder {
+
+    private static final String ALL = "all";
+
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    private final SingleFlight<Long, Optional<Long>> speakerVersions = new SingleFlight<>();
+    private final SingleFlight<Long, Optional<SpeakerView>> speakerViews = new SingleFlight<>();
+    private final SingleFlight<String, List<SpeakerView>> speakerLists = new SingleFlight<>();
+    private final SingleFlight<String, TableFingerprint> speakerFingerprints = new SingleFlight<>();
+    private final SingleFlight<Long, Optional<SessionVersion>> sessionVersions = new SingleFlight<>();
+    private final SingleFlight<Long, List<SessionRow>> sessionRows = new SingleFlight<>();
+    private final SingleFlight<String, List<SessionRow>> sessionLists = new SingleFlight<>();
+    private final SingleFlight<String, TableFingerprint> sessionFingerprints = new SingleFlight<>();
+
+    public Optional<Long> speakerVersion(Long id) {
+        return load(speakerVersions, id, () -> speakerRepository.findVersionById(id));
+    }
+
+    public Optional<SpeakerView> speakerView(Long id) {
+        return load(speakerViews, id, () -> speakerRepository.findViewById(id));
+    }
+
+    public List<SpeakerView> allSpeakerViews() {
+        return load(speakerLists, ALL, speakerRepository::findAllViews);
+    }
+
+    public TableFingerprint speakerFingerprint() {
+        return load(speakerFingerprints, ALL, speakerRepository::fingerprint);
+    }
+
+    public Optional<SessionVersion> sessionVersion(Long id) {
+        return load(sessionVersions, id, () -> sessionRepository.findVersionById(id));
+    }
+
+    // rows of one session, see SessionView.of
+    public List<SessionRow> sessionRows(Long id) {
+        return load(sessionRows, id, () -> sessionRepository.findRows(List.of(id)));
+    }
+
+    public List<SessionRow> allSessionRows() {
+        return load(sessionLists, ALL, sessionRepository::findAllRows);
+    }
+
+    public TableFingerprint sessionFingerprint() {
+        return load(sessionFingerprints, ALL, sessionRepository::fingerprint);
+    }
+
+    private static <K, V> V load(SingleFlight<K, V> flight, K key, Supplier<V> loader) {
+        return ReplicaPool.pinned() ? loader.get() : flight.load(key, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (EntityChangedEvent.SPEAKERS.equals(event.resource())) {
+            speakerVersions.forgetAll();
+            speakerViews.forgetAll();
+            speakerLists.forgetAll();
+            speakerFingerprints.forgetAll();
+        }
+        // sessions are read with their speakers
+        sessionVersions.forgetAll();
+        sessionRows.forgetAll();
+        sessionLists.forgetAll();
+        sessionFingerprints.forgetAll();
+    }
+
+    // app.single.flight.loads / app.single.flight.shared{query="..."}: loads run and callers that shared one
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map.of("speakerVersion", speakerVersions, "speakerView", speakerViews, "allSpeakerViews", speakerLists,
+                "speakerFingerprint", speakerFingerprints, "sessionVersion", sessionVersions, "sessionRows", sessionRows,
+                "allSessionRows", sessionLists, "sessionFingerprint", sessionFingerprints).forEach((query, flight) -> {
+            FunctionCounter.builder("app.single.flight.loads", flight, SingleFlight::loads)
+                    .description("Repository reads run")
+                    .tag("query", query)
+                    .register(registry);
+            FunctionCounter.builder("app.single.flight.shared", flight, SingleFlight::shared)
+                    .description("Repository reads answered by a concurrent caller's load")
+                    .tag("query", query)
+                    .register(registry);
+        });
+    }
+}
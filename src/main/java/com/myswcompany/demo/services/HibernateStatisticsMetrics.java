@@ -0,0 +1,72 @@
+package com.myswcompany.demo.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+// Hibernate statistics as meters, named like the hibernate-micrometer binder so the usual dashboards work.
+// The counters read the live Statistics object on every scrape, nothing is copied.
+@Component
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        counter(registry, "hibernate.query.executions", "queries executed", statistics, Statistics::getQueryExecutionCount);
+        counter(registry, "hibernate.statements", "JDBC statements prepared", statistics, Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.flushes", "session flushes", statistics, Statistics::getFlushCount);
+        counter(registry, "hibernate.entities.loads", "entities loaded", statistics, Statistics::getEntityLoadCount);
+        counter(registry, "hibernate.entities.inserts", "entities inserted", statistics, Statistics::getEntityInsertCount);
+        counter(registry, "hibernate.entities.updates", "entities updated", statistics, Statistics::getEntityUpdateCount);
+        counter(registry, "hibernate.entities.deletes", "entities deleted", statistics, Statistics::getEntityDeleteCount);
+        counter(registry, "hibernate.optimistic.failures", "optimistic lock failures", statistics, Statistics::getOptimisticFailureCount);
+        Gauge.builder("hibernate.query.executions.max", statistics, Statistics::getQueryExecutionMaxTime)
+                .description("slowest query execution (ms)")
+                .register(registry);
+
+        // query result regions (speaker-lists, ...) are created on first use, so they are only counted in total
+        FunctionCounter.builder("hibernate.cache.query.requests", statistics, Statistics::getQueryCacheHitCount)
+                .tags("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.cache.query.requests", statistics, Statistics::getQueryCacheMissCount)
+                .tags("result", "miss")
+                .register(registry);
+        counter(registry, "hibernate.cache.query.puts", "query cache puts", statistics, Statistics::getQueryCachePutCount);
+
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            FunctionCounter.builder("hibernate.second.level.cache.requests", regionStatistics, CacheRegionStatistics::getHitCount)
+                    .tags("region", region, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.second.level.cache.requests", regionStatistics, CacheRegionStatistics::getMissCount)
+                    .tags("region", region, "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.second.level.cache.puts", regionStatistics, CacheRegionStatistics::getPutCount)
+                    .tags("region", region)
+                    .register(registry);
+        }
+    }
+
+    private static void counter(MeterRegistry registry, String name, String description,
+                                Statistics statistics, ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder(name, statistics, count)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,68 @@
+package com.myswcompany.demo.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Streams query results to the client as NDJSON (one JSON document per line).
+//
+// The rows come from a forward-only JDBC cursor (a Stream<T> repository query with a fetch size),
+// are written one by one and the persistence context is cleared every BATCH_SIZE rows,
+// so heap use stays flat no matter how many rows the table has.
+@Component
+public class NdjsonExporter {
+
+    // keep in line with the fetch size hint of the streaming repository queries
+    public static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The query is run lazily on the async thread writing the response,
+    // inside its own read-only transaction (a JDBC cursor needs an open transaction).
+    public <T> StreamingResponseBody export(Supplier<Stream<T>> query) {
+        return out -> {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                tx.executeWithoutResult(status -> {
+                    try (Stream<T> rows = query.get()) {
+                        int written = 0;
+                        for (T row : (Iterable<T>) rows::iterator) {
+                            writer.writeValue(generator, row);
+                            generator.writeRaw('\n');
+
+                            if (++written % BATCH_SIZE == 0) {
+                                entityManager.clear();
+                                generator.flush();
+                            }
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.myswcompany.demo.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Write path of the PUT endpoints: read, apply the body, write only what changed.
+//
+// Everything runs in one transaction. The current row normally comes from the second-level cache, so
+// there is no SELECT. The entities are @DynamicUpdate, so the UPDATE sets only the changed columns
+// (plus version). A body equal to the stored state changes nothing: Hibernate's dirty check finds
+// nothing to flush, no statement is sent and the version stays put. A missing row becomes a single
+// INSERT via persist (merge would SELECT first).
+//
+// A concurrent update between the read and the flush fails the version check. The write is then done once
+// more on the newer row: with If-Match its precondition fails now (412), without it the body simply wins
+// like any later PUT. Losing the race a second time is a CONFLICT (409).
+@Component
+public class ReplaceWriter {
+
+    public enum Outcome { UPDATED, UNCHANGED, CREATED, PRECONDITION_FAILED, CONFLICT }
+
+    public record Replaced<T>(Outcome outcome, T entity) {
+    }
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // versionOf:    version of the entity, compared before and after to tell UPDATED from UNCHANGED
+    // precondition: If-Match check on the current version, null when the row doesn't exist
+    // apply:        copies the request body onto the current entity
+    // create:       new entity (no id, no version) for a missing row
+    public <T> Replaced<T> replace(Class<T> type, Long id,
+                                   Function<T, Long> versionOf,
+                                   Predicate<Long> precondition,
+                                   Consumer<T> apply,
+                                   Supplier<T> create) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write(type, id, versionOf, precondition, apply, create);
+            } catch (OptimisticLockException | ObjectOptimisticLockingFailureException ex) {
+                // the flush throws the JPA exception as it is, only the commit's is translated
+                if (attempt == 2) {
+                    return new Replaced<>(Outcome.CONFLICT, null);
+                }
+            }
+        }
+    }
+
+    private <T> Replaced<T> write(Class<T> type, Long id,
+                                  Function<T, Long> versionOf,
+                                  Predicate<Long> precondition,
+                                  Consumer<T> apply,
+                                  Supplier<T> create) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            T current = entityManager.find(type, id);
+            Long before = current == null ? null : versionOf.apply(current);
+            if (!precondition.test(before)) {
+                return new Replaced<>(Outcome.PRECONDITION_FAILED, null);
+            }
+
+            if (current == null) {
+                T created = create.get();
+                entityManager.persist(created);
+                entityManager.flush();
+                return new Replaced<>(Outcome.CREATED, created);
+            }
+
+            apply.accept(current);
+            // flushed now rather than at commit, so the new version is known here
+            entityManager.flush();
+            return new Replaced<>(Objects.equals(before, versionOf.apply(current)) ? Outcome.UNCHANGED : Outcome.UPDATED, current);
+        });
+    }
+}
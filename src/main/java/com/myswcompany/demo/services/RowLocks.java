@@ -0,0 +1,28 @@
+package com.myswcompany.demo.services;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Locks by row, for reading a row after a change and keeping what was read: run one after the other for the
+// same row, the later read also lands later. Rows share a fixed number of locks. ReentrantLock rather than
+// synchronized, the work is a query and must not pin a virtual thread.
+public final class RowLocks {
+
+    private final ReentrantLock[] locks;
+
+    public RowLocks(int stripes) {
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public void run(String resource, Long id, Runnable work) {
+        ReentrantLock lock = locks[Math.floorMod(31 * resource.hashCode() + id.hashCode(), locks.length)];
+        lock.lock();
+        try {
+            work.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
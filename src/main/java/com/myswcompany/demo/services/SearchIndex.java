@@ -0,0 +1,343 @@
+package com.myswcompany.demo.services;
+
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.models.SearchHit;
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.repositories.SessionRepository;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// In-memory inverted index over speakers and sessions for /api/v1/search.
+//
+// Every term points to the documents containing it with a weighted term frequency
+// (a hit in a name counts more than a hit in a bio). Terms are kept sorted, so a query word
+// matches whole terms and, at a lower weight, every term it is a prefix of ("kub" -> kubernetes).
+// All query words have to match; documents are ranked by the sum of tf * idf of their best matches.
+//
+// Built from the database once the application is ready, then kept up to date from the
+// EntityChangedEvents of the controllers. Documents that change while the rebuild reads the tables are
+// read again once it is done, the rebuild could have put back the older row it saw. A document is read and
+// replaced under the RowLocks lock of its row, so of two changes to it the newer read lands last.
+// Queries never touch the database.
+@Component
+public class SearchIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final double PREFIX_MATCH = 0.5;
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+
+    private record DocKey(String resource, long id) {
+    }
+
+    private record Doc(String title, Set<String> terms) {
+    }
+
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NavigableMap<String, Map<DocKey, Float>> postings = new TreeMap<>();
+    private final Map<DocKey, Doc> docs = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RowLocks rowLocks = new RowLocks(64);
+    // documents changed while a rebuild runs, null when there is none; guarded by lock
+    private Set<DocKey> changedDuringRebuild;
+
+    // A database that isn't reachable yet doesn't keep the application from starting,
+    // search just has nothing to find until the next rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        recordChanges(new HashSet<>());
+        try {
+            tx.executeWithoutResult(status -> {
+                putAll(speakerRepository.streamAll(), this::put);
+                putAll(sessionRepository.streamAll(), this::put);
+            });
+            recordChanges(null).forEach(this::refresh);
+            log.info("Search index built: {} documents, {} terms", size(), terms());
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Search index could not be built: {}", ex.getMessage());
+        } finally {
+            recordChanges(null);
+        }
+    }
+
+    // Starts (empty set) or stops (null) recording the changed documents, returns the ones recorded until now
+    private Set<DocKey> recordChanges(Set<DocKey> changed) {
+        lock.writeLock().lock();
+        try {
+            Set<DocKey> recorded = changedDuringRebuild;
+            changedDuringRebuild = changed;
+            return recorded == null ? Set.of() : recorded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> void putAll(Stream<T> rows, Consumer<T> put) {
+        try (rows) {
+            int indexed = 0;
+            for (T row : (Iterable<T>) rows::iterator) {
+                put.accept(row);
+                if (++indexed % NdjsonExporter.BATCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        DocKey key = new DocKey(event.resource(), event.id());
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (event.change() == EntityChangedEvent.Change.DELETED) {
+            rowLocks.run(event.resource(), event.id(), () -> remove(event.resource(), event.id()));
+        } else {
+            refresh(key);
+        }
+    }
+
+    // The document as it is in the database now, removed if the row is gone
+    private void refresh(DocKey key) {
+        Runnable gone = () -> remove(key.resource(), key.id());
+        rowLocks.run(key.resource(), key.id(), () -> {
+            if (EntityChangedEvent.SPEAKERS.equals(key.resource())) {
+                speakerRepository.findById(key.id()).ifPresentOrElse(this::put, gone);
+            } else if (EntityChangedEvent.SESSIONS.equals(key.resource())) {
+                sessionRepository.findById(key.id()).ifPresentOrElse(this::put, gone);
+            }
+        });
+    }
+
+    public void put(Speaker speaker) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, speaker.getFirst_name(), 3);
+        addField(terms, speaker.getLast_name(), 3);
+        addField(terms, speaker.getCompany(), 2);
+        addField(terms, speaker.getTitle(), 2);
+        addField(terms, speaker.getSpeaker_bio(), 1);
+        put(new DocKey(EntityChangedEvent.SPEAKERS, speaker.getSpeaker_id()),
+                speaker.getFirst_name() + " " + speaker.getLast_name(), terms);
+    }
+
+    public void put(Session session) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, session.getSession_name(), 3);
+        addField(terms, session.getSession_description(), 1);
+        put(new DocKey(EntityChangedEvent.SESSIONS, session.getSession_id()), session.getSession_name(), terms);
+    }
+
+    public void remove(String resource, Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(new DocKey(resource, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        List<String> words = tokenize(query).distinct().toList();
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // rarest word first, the others are then only looked up for the documents still in the running
+            List<WordMatch> matches = words.stream()
+                    .map(word -> new WordMatch(word, postings.subMap(word, true, word + Character.MAX_VALUE, false)))
+                    .sorted(Comparator.comparingInt(WordMatch::postingCount))
+                    .toList();
+
+            Map<DocKey, Double> scores = score(matches.get(0));
+            for (int i = 1; i < matches.size() && !scores.isEmpty(); i++) {
+                narrow(scores, matches.get(i));
+            }
+
+            // top `limit` by score, the weakest of them at the head of the queue
+            PriorityQueue<Map.Entry<DocKey, Double>> best = new PriorityQueue<>(limit + 1, SearchIndex::rank);
+            for (Map.Entry<DocKey, Double> entry : scores.entrySet()) {
+                if (best.size() < limit) {
+                    best.add(entry);
+                } else if (rank(entry, best.peek()) > 0) {
+                    best.poll();
+                    best.add(entry);
+                }
+            }
+            SearchHit[] hits = new SearchHit[best.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                Map.Entry<DocKey, Double> entry = best.poll();
+                hits[i] = new SearchHit(entry.getKey().resource(), entry.getKey().id(),
+                        docs.get(entry.getKey()).title(), entry.getValue());
+            }
+            return List.of(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int terms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Higher score ranks higher, equal scores in the order of resource and id
+    private static int rank(Map.Entry<DocKey, Double> a, Map.Entry<DocKey, Double> b) {
+        int byScore = Double.compare(a.getValue(), b.getValue());
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byResource = b.getKey().resource().compareTo(a.getKey().resource());
+        return byResource != 0 ? byResource : Long.compare(b.getKey().id(), a.getKey().id());
+    }
+
+    // The terms a query word matches: the word itself and every term starting with it
+    private record WordMatch(String word, SortedMap<String, Map<DocKey, Float>> terms) {
+
+        int postingCount() {
+            int count = 0;
+            for (Map<DocKey, Float> docsWithTerm : terms.values()) {
+                count += docsWithTerm.size();
+            }
+            return count;
+        }
+    }
+
+    // Best match of the word in every document containing one of its terms
+    private Map<DocKey, Double> score(WordMatch match) {
+        Map<DocKey, Double> scores = HashMap.newHashMap(match.postingCount());
+        for (Map.Entry<String, Map<DocKey, Float>> term : match.terms().entrySet()) {
+            double weight = termWeight(match.word(), term);
+            for (Map.Entry<DocKey, Float> posting : term.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * weight, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    // Drops the documents without a match for the word and adds the best match to the others
+    private void narrow(Map<DocKey, Double> scores, WordMatch match) {
+        double[] weights = new double[match.terms().size()];
+        List<Map<DocKey, Float>> terms = new ArrayList<>(weights.length);
+        for (Map.Entry<String, Map<DocKey, Float>> term : match.terms().entrySet()) {
+            weights[terms.size()] = termWeight(match.word(), term);
+            terms.add(term.getValue());
+        }
+
+        Iterator<Map.Entry<DocKey, Double>> candidates = scores.entrySet().iterator();
+        while (candidates.hasNext()) {
+            Map.Entry<DocKey, Double> candidate = candidates.next();
+            double best = 0;
+            for (int i = 0; i < weights.length; i++) {
+                Float tf = terms.get(i).get(candidate.getKey());
+                if (tf != null) {
+                    best = Math.max(best, tf * weights[i]);
+                }
+            }
+            if (best == 0) {
+                candidates.remove();
+            } else {
+                candidate.setValue(candidate.getValue() + best);
+            }
+        }
+    }
+
+    // idf of the term, halved when the query word is only a prefix of it
+    private double termWeight(String word, Map.Entry<String, Map<DocKey, Float>> term) {
+        double idf = Math.log(1 + (double) docs.size() / term.getValue().size());
+        return term.getKey().length() == word.length() ? idf : idf * PREFIX_MATCH;
+    }
+
+    private void put(DocKey key, String title, Map<String, Float> terms) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+            docs.put(key, new Doc(title, terms.keySet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(DocKey key) {
+        Doc doc = docs.remove(key);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms()) {
+            Map<DocKey, Float> docsWithTerm = postings.get(term);
+            docsWithTerm.remove(key);
+            if (docsWithTerm.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        tokenize(text).forEach(term -> terms.merge(term, weight, Float::sum));
+    }
+
+    // lower case words without accents: "Mäkinen's Kubernetes-talk" -> makinen, s, kubernetes, talk
+    static Stream<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Stream.empty();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.splitAsStream(folded.toLowerCase(Locale.ROOT)).filter(word -> !word.isEmpty());
+    }
+}
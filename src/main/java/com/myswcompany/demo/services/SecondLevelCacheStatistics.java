@@ -0,0 +1,68 @@
+package com.myswcompany.demo.services;
+
+import com.myswcompany.demo.models.CacheRegionStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+// Hit/miss/put counters per region come from Hibernate statistics,
+// evictions (size or expiry) from the JCache statistics MXBean of the Caffeine cache.
+@Component
+public class SecondLevelCacheStatistics {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager jcacheManager;
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public List<CacheRegionStats> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+
+        List<CacheRegionStats> regions = new ArrayList<>(names.length);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) {
+                continue;
+            }
+            regions.add(new CacheRegionStats(name,
+                    region.getHitCount(), region.getMissCount(), region.getPutCount(), evictions(name)));
+        }
+        return regions;
+    }
+
+    public long evictions(String region) {
+        try {
+            // region names are plain (speakers, session-lists, ...), no quoting needed; the JCache
+            // implementation replaces the ':' of the manager URI, as in any ObjectName value
+            String cacheManager = jcacheManager.getURI().toString().replaceAll("[,:=\n]", ".");
+            Set<ObjectName> beans = mBeanServer.queryNames(new ObjectName(
+                    "javax.cache:type=CacheStatistics,CacheManager=" + cacheManager + ",Cache=" + region), null);
+            long evictions = 0;
+            for (ObjectName bean : beans) {
+                evictions += ((Number) mBeanServer.getAttribute(bean, "CacheEvictions")).longValue();
+            }
+            return evictions;
+        } catch (JMException ex) {
+            return 0;
+        }
+    }
+}
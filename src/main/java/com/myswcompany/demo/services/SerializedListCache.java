@@ -0,0 +1,105 @@
+package com.myswcompany.demo.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myswcompany.demo.events.EntityChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// The list endpoints serialized once: JSON bytes plus a gzip copy, per (resource, ETag, cursor, limit, fields).
+// The ETag is the table fingerprint, so an entry can never outlive the rows it was built from;
+// writes through the controllers (EntityChangedEvent) drop the entries of the resource right away
+// instead of leaving them to the size limit. A transaction that doesn't put into the second-level cache (a read
+// from a replica that may lag behind, see ReplicaAwareJpaDialect) doesn't add entries here either.
+@Component
+public class SerializedListCache {
+
+    public record Page(List<?> items, String nextCursor) {
+    }
+
+    // gzip is null when compressing didn't make the body smaller
+    public record SerializedList(String etag, String nextCursor, byte[] json, byte[] gzip) {
+    }
+
+    // fields: the ?fields= selection in JSON order, null for all fields
+    private record Key(String resource, String etag, String cursor, Integer limit, String fields) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Cache<Key, SerializedList> cache;
+
+    public SerializedListCache(@Value("${app.list-cache.max-bytes}") long maxBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<Key, SerializedList>weigher((key, list) -> list.json().length + (list.gzip() == null ? 0 : list.gzip().length))
+                .build();
+    }
+
+    // The loader runs at most once per key at a time, concurrent requests for the same list wait for it
+    public SerializedList get(String resource, String etag, String cursor, Integer limit, String fields, Supplier<Page> loader) {
+        Key key = new Key(resource, etag, cursor, limit, fields);
+        if (!cachePutsAllowed()) {
+            SerializedList cached = cache.getIfPresent(key);
+            return cached != null ? cached : serialize(etag, loader.get());
+        }
+        return cache.get(key, k -> serialize(etag, loader.get()));
+    }
+
+    private boolean cachePutsAllowed() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || entityManager.unwrap(Session.class).getCacheMode().isPutEnabled();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        invalidate(event.resource());
+        // sessions are serialized with their speakers
+        if (EntityChangedEvent.SPEAKERS.equals(event.resource())) {
+            invalidate(EntityChangedEvent.SESSIONS);
+        }
+    }
+
+    private void invalidate(String resource) {
+        cache.asMap().keySet().removeIf(key -> key.resource().equals(resource));
+    }
+
+    private SerializedList serialize(String etag, Page page) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(page.items());
+            byte[] gzip = gzip(json);
+            return new SerializedList(etag, page.nextCursor(), json, gzip.length < json.length ? gzip : null);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize list", ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,103 @@
+package com.myswcompany.demo.services;
+
+import com.myswcompany.demo.exceptions.ResourceNotFoundException;
+import com.myswcompany.demo.exceptions.UnknownSpeakersException;
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+// Adds and removes speakers of a session by writing only the changed session_speakers rows.
+//
+// Going through Session.speakers would load the whole collection and Hibernate rewrites a bag
+// (delete all rows, insert them again) on any change. Here the delta is a single statement instead:
+// INSERT ... SELECT of the given speakers, where the unique (session_id, speaker_id) skips the ones linked
+// already (also by a concurrent request), or DELETE ... IN of the given ones.
+// The session version is incremented when rows changed, so its ETag and the list ETags change too.
+@Component
+public class SessionSpeakerLinks {
+
+    private static final String INSERT_MISSING = "insert into session_speakers (session_id, speaker_id) " +
+            "select se.session_id, sp.speaker_id from sessions se, speakers sp " +
+            "where se.session_id = :sessionId and sp.speaker_id in (:speakerIds) " +
+            "on conflict do nothing";
+
+    private static final String DELETE_GIVEN = "delete from session_speakers " +
+            "where session_id = :sessionId and speaker_id in (:speakerIds)";
+
+    private static final String BUMP_VERSION = "update Session s set s.version = s.version + 1 " +
+            "where s.sessionId = :id and s.version = :version";
+
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Links the speakers that aren't linked yet, returns the number of rows inserted.
+    // The ids are validated up front with one IN query, unknown ones reject the whole request.
+    // expectedVersion: the session version the client has seen (If-Match), null for no precondition
+    public int link(Long sessionId, Long expectedVersion, Set<Long> speakerIds) throws ResourceNotFoundException, UnknownSpeakersException {
+        if (!speakerIds.isEmpty()) {
+            Set<Long> unknown = new TreeSet<>(speakerIds);
+            speakerRepository.findExistingIds(speakerIds).forEach(unknown::remove);
+            if (!unknown.isEmpty()) {
+                throw new UnknownSpeakersException(unknown);
+            }
+        }
+        return write(sessionId, expectedVersion, INSERT_MISSING, speakerIds);
+    }
+
+    // Unlinks the given speakers, ids that aren't linked are ignored. Returns the number of rows deleted.
+    public int unlink(Long sessionId, Long expectedVersion, Set<Long> speakerIds) throws ResourceNotFoundException {
+        return write(sessionId, expectedVersion, DELETE_GIVEN, speakerIds);
+    }
+
+    private int write(Long sessionId, Long expectedVersion, String sql, Set<Long> speakerIds) throws ResourceNotFoundException {
+        Integer written = new TransactionTemplate(transactionManager).execute(status -> {
+            Session session = entityManager.find(Session.class, sessionId);
+            if (session == null) {
+                return null;
+            }
+            if (expectedVersion != null && !expectedVersion.equals(session.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Session.class, sessionId);
+            }
+            if (speakerIds.isEmpty()) {
+                return 0;
+            }
+
+            // the query space tells Hibernate which cached query results and collections the statement invalidates
+            int rows = entityManager.createNativeQuery(sql)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace("session_speakers")
+                    .setParameter("sessionId", sessionId)
+                    .setParameterList("speakerIds", speakerIds)
+                    .executeUpdate();
+            // version + 1, checked against the version read above. A bulk update rather than a
+            // force-increment lock, so the cached version queries (findVersionById) are invalidated too
+            if (rows > 0 && entityManager.createQuery(BUMP_VERSION)
+                    .setParameter("id", sessionId)
+                    .setParameter("version", session.getVersion())
+                    .executeUpdate() == 0) {
+                throw new ObjectOptimisticLockingFailureException(Session.class, sessionId);
+            }
+            return rows;
+        });
+        if (written == null) {
+            throw new ResourceNotFoundException("Session not found with this id: " + sessionId);
+        }
+        return written;
+    }
+}
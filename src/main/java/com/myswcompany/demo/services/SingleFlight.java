@@ -0,0 +1,68 @@
+package com.myswcompany.demo.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Request coalescing: while a load for a key is running, further callers for the same key wait for
+// its result instead of starting their own. The first caller runs the loader on its own thread, an
+// exception is rethrown to everyone that waited for it. Nothing is kept after the load completes.
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            shared.increment();
+            return join(running);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Callers arriving after this start a new load, the running ones still get their result.
+    // Used after a write, so a read that starts after the commit can't be answered by a load that started before it
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    // loads run by this instance
+    public long loads() {
+        return loads.sum();
+    }
+
+    // callers that got the result of another caller's load
+    public long shared() {
+        return shared.sum();
+    }
+
+    private static <V> V join(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.myswcompany.demo.services;
+
+import com.myswcompany.demo.exceptions.InvalidFieldsException;
+import com.myswcompany.demo.models.SpeakerView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// ?fields= of the read endpoints, e.g. GET /api/v1/speakers?fields=first_name,last_name
+// Only the listed columns are selected, so speaker_bio or session_description are never read unless asked for.
+// Items are JSON-ready maps (JSON name -> value) and always carry their id. Without ?fields= the endpoints use
+// the SpeakerView / SessionView queries of the repositories instead.
+@Service
+public class SparseFieldsets {
+
+    // not a column of sessions: the speakers of each session, as full SpeakerViews
+    public static final String SPEAKERS = "speakers";
+
+    // Sparse rows of a list, with the keyset of the last row for the next cursor
+    public record Slice(List<Map<String, Object>> items, String lastSortKey, Long lastId) {
+    }
+
+    // entity name in JPQL, its id and sort key, and the JPQL attribute of every JSON field (in JSON order)
+    private record Resource(String entity, String id, String sortKey, Map<String, String> fields) {
+    }
+
+    private static final Resource SPEAKER = new Resource("speakers", "speakerId", "firstName", fields(
+            "speaker_id", "speakerId",
+            "first_name", "firstName",
+            "last_name", "lastName",
+            "title", "title",
+            "company", "company",
+            "speaker_bio", "speakerBio"));
+
+    private static final Resource SESSION = new Resource("Session", "sessionId", "sessionName", fields(
+            "session_id", "sessionId",
+            "session_name", "sessionName",
+            "session_description", "sessionDescription",
+            "session_length", "sessionLength"));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The requested fields in JSON order, null when there is no ?fields= (all fields)
+    public Set<String> speakerFields(String fields) throws InvalidFieldsException {
+        return parse(SPEAKER, fields, false);
+    }
+
+    public Set<String> sessionFields(String fields) throws InvalidFieldsException {
+        return parse(SESSION, fields, true);
+    }
+
+    // limit null = all rows, afterId null = from the first row
+    public Slice speakers(Set<String> fields, String afterSortKey, Long afterId, Integer limit) {
+        return select(SPEAKER, fields, afterSortKey, afterId, limit);
+    }
+
+    public Optional<Map<String, Object>> speaker(Set<String> fields, Long id) {
+        return selectById(SPEAKER, fields, id);
+    }
+
+    public Slice sessions(Set<String> fields, String afterSortKey, Long afterId, Integer limit) {
+        Slice slice = select(SESSION, fields, afterSortKey, afterId, limit);
+        if (fields.contains(SPEAKERS)) {
+            // a full listing takes every session_speakers row, a page only those of its sessions
+            addSpeakers(slice.items(), limit == null ? null : slice.items().stream().map(item -> (Long) item.get("session_id")).toList());
+        }
+        return slice;
+    }
+
+    public Optional<Map<String, Object>> session(Set<String> fields, Long id) {
+        Optional<Map<String, Object>> session = selectById(SESSION, fields, id);
+        if (session.isPresent() && fields.contains(SPEAKERS)) {
+            addSpeakers(List.of(session.get()), List.of(id));
+        }
+        return session;
+    }
+
+    private Slice select(Resource resource, Set<String> fields, String afterSortKey, Long afterId, Integer limit) {
+        StringBuilder jpql = selectClause(resource, fields);
+        if (afterId != null) {
+            jpql.append(" where (e.").append(resource.sortKey()).append(", e.").append(resource.id()).append(") > (:sortKey, :id)");
+        }
+        jpql.append(" order by e.").append(resource.sortKey()).append(" asc, e.").append(resource.id()).append(" asc");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        if (afterId != null) {
+            query.setParameter("sortKey", afterSortKey).setParameter("id", afterId);
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        List<Object[]> rows = query.getResultList();
+        List<Map<String, Object>> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            items.add(toItem(resource, fields, row));
+        }
+        Object[] last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return new Slice(items, last == null ? null : (String) last[1], last == null ? null : (Long) last[0]);
+    }
+
+    private Optional<Map<String, Object>> selectById(Resource resource, Set<String> fields, Long id) {
+        StringBuilder jpql = selectClause(resource, fields).append(" where e.").append(resource.id()).append(" = :id");
+        return entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .map(row -> toItem(resource, fields, row));
+    }
+
+    // id and sort key first (always needed for the item and the cursor), then the requested columns
+    private static StringBuilder selectClause(Resource resource, Set<String> fields) {
+        StringBuilder jpql = new StringBuilder("select e.").append(resource.id()).append(", e.").append(resource.sortKey());
+        for (String field : fields) {
+            String attribute = resource.fields().get(field);
+            if (attribute != null) {
+                jpql.append(", e.").append(attribute);
+            }
+        }
+        return jpql.append(" from ").append(resource.entity()).append(" e");
+    }
+
+    private static Map<String, Object> toItem(Resource resource, Set<String> fields, Object[] row) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        String idField = resource.fields().keySet().iterator().next();
+        item.put(idField, row[0]);
+        int column = 2;
+        for (String field : fields) {
+            if (resource.fields().containsKey(field)) {
+                Object value = row[column++];
+                if (!field.equals(idField)) {
+                    item.put(field, value);
+                }
+            }
+        }
+        return item;
+    }
+
+    private void addSpeakers(List<Map<String, Object>> sessions, Collection<Long> sessionIds) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        TypedQuery<Object[]> query = entityManager.createQuery("select s.sessionId, sp.speakerId, sp.firstName, sp.lastName, " +
+                "sp.title, sp.company, sp.speakerBio, sp.version from Session s join s.speakers sp" +
+                (sessionIds == null ? "" : " where s.sessionId in :ids"), Object[].class);
+        if (sessionIds != null) {
+            query.setParameter("ids", sessionIds);
+        }
+
+        Map<Long, List<SpeakerView>> speakers = new HashMap<>();
+        for (Object[] row : query.getResultList()) {
+            speakers.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(new SpeakerView((Long) row[1], (String) row[2],
+                    (String) row[3], (String) row[4], (String) row[5], (String) row[6], (Long) row[7]));
+        }
+        for (Map<String, Object> session : sessions) {
+            session.put(SPEAKERS, speakers.getOrDefault((Long) session.get("session_id"), List.of()));
+        }
+    }
+
+    private static Set<String> parse(Resource resource, String fields, boolean withSpeakers) throws InvalidFieldsException {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!resource.fields().containsKey(name) && !(withSpeakers && name.equals(SPEAKERS))) {
+                throw new InvalidFieldsException("Unknown field: " + name + ". Fields: " + String.join(",", resource.fields().keySet())
+                        + (withSpeakers ? "," + SPEAKERS : ""));
+            }
+            requested.add(name);
+        }
+        // JSON order, so fields=a,b and fields=b,a are the same list
+        Set<String> ordered = new LinkedHashSet<>();
+        resource.fields().keySet().stream().filter(requested::contains).forEach(ordered::add);
+        if (requested.contains(SPEAKERS)) {
+            ordered.add(SPEAKERS);
+        }
+        return ordered;
+    }
+
+    private static Map<String, String> fields(String... jsonNameAndAttribute) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < jsonNameAndAttribute.length; i += 2) {
+            fields.put(jsonNameAndAttribute[i], jsonNameAndAttribute[i + 1]);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,104 @@
+package com.myswcompany.demo.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
+import com.myswcompany.demo.models.PatchOperation;
+import com.myswcompany.demo.models.Speaker;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Applies JSON Patch documents to a Speaker.
+//
+// Fast path (applyInPlace): add / replace / remove / test on the plain text members
+// (/first_name, /last_name, /title, /company, /speaker_bio) go straight to the Speaker getters and setters,
+// no JsonNode tree of the speaker and no detached copy are built.
+// Everything else (move, copy, other paths, non-text values) takes the generic path (applyGeneric):
+// speaker -> JsonNode -> JsonPatch.apply -> Speaker.
+@Component
+public class SpeakerPatchApplier {
+
+    private record Property(int slot, Function<Speaker, String> getter, BiConsumer<Speaker, String> setter) {
+    }
+
+    // JSON Pointer -> accessors, slot is the index in the staged values array
+    private static final Map<String, Property> PROPERTIES = Map.of(
+            "/first_name", new Property(0, Speaker::getFirst_name, Speaker::setFirst_name),
+            "/last_name", new Property(1, Speaker::getLast_name, Speaker::setLast_name),
+            "/title", new Property(2, Speaker::getTitle, Speaker::setTitle),
+            "/company", new Property(3, Speaker::getCompany, Speaker::setCompany),
+            "/speaker_bio", new Property(4, Speaker::getSpeaker_bio, Speaker::setSpeaker_bio));
+
+    private static final Property[] BY_SLOT = PROPERTIES.values().stream()
+            .sorted((a, b) -> Integer.compare(a.slot(), b.slot()))
+            .toArray(Property[]::new);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Returns false, without touching the speaker, when the patch has an operation the fast path doesn't support.
+    // Otherwise all operations are applied to a staged copy of the values first and written to the
+    // speaker only when every one of them succeeded, a failing "test" leaves the speaker unchanged.
+    public boolean applyInPlace(List<PatchOperation> operations, Speaker target) throws JsonPatchException {
+        for (PatchOperation operation : operations) {
+            if (!isSupported(operation)) {
+                return false;
+            }
+        }
+
+        String[] values = new String[BY_SLOT.length];
+        for (Property property : BY_SLOT) {
+            values[property.slot()] = property.getter().apply(target);
+        }
+
+        for (PatchOperation operation : operations) {
+            int slot = PROPERTIES.get(operation.path()).slot();
+            switch (operation.op()) {
+                case "add", "replace" -> values[slot] = operation.value().isNull() ? null : operation.value().textValue();
+                case "remove" -> values[slot] = null;
+                case "test" -> {
+                    String expected = operation.value().isNull() ? null : operation.value().textValue();
+                    if (!Objects.equals(values[slot], expected)) {
+                        throw new JsonPatchException("test failed for " + operation.path());
+                    }
+                }
+                default -> throw new IllegalStateException(operation.op());
+            }
+        }
+
+        for (Property property : BY_SLOT) {
+            property.setter().accept(target, values[property.slot()]);
+        }
+        return true;
+    }
+
+    private static boolean isSupported(PatchOperation operation) {
+        if (operation.op() == null || !PROPERTIES.containsKey(operation.path())) {
+            return false;
+        }
+        return switch (operation.op()) {
+            case "add", "replace", "test" -> operation.value() != null
+                    && (operation.value().isTextual() || operation.value().isNull());
+            case "remove" -> true;
+            default -> false;
+        };
+    }
+
+    // The original implementation: convert target Speaker into a JsonNode, apply the patch,
+    // bind the patched tree back to a new (detached) Speaker.
+    public Speaker applyGeneric(JsonPatch patch, Speaker target) throws JsonPatchException, JsonProcessingException {
+        JsonNode patched = patch.apply(objectMapper.convertValue(target, JsonNode.class));
+        return objectMapper.treeToValue(patched, Speaker.class);
+    }
+
+    // throws IllegalArgumentException for a malformed patch (unknown op, missing path, ...)
+    public JsonPatch toJsonPatch(List<PatchOperation> operations) {
+        return objectMapper.convertValue(operations, JsonPatch.class);
+    }
+}
@@ -0,0 +1,277 @@
+package com.myswcompany.demo.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.events.EntityChangedEvent.Change;
+import com.myswcompany.demo.models.Speaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Write-behind for non-critical speaker edits (PUT/PATCH with Prefer: respond-async).
+//
+// An accepted update is the set of fields it changes, each with the value it replaces (its base). It is
+// written to the UpdateJournal (fsync) and merged into the pending update of its speaker, then the request
+// is answered with 202. Every flushInterval the pending updates are written in transactions of
+// BatchWriter.CHUNK_SIZE speakers: however many edits a speaker got in the meantime, it gets one UPDATE
+// (@DynamicUpdate, only the changed columns).
+//
+// A field is only written while the speaker still has its base value: a synchronous PUT/PATCH that changed
+// the field after the update was queued is newer and stays, also when the journal is replayed after a crash.
+// The base is kept per field rather than as the @Version, since the version also moves with the flushes
+// themselves and with changes to other fields. Updates of a speaker deleted in the meantime are dropped, as
+// are updates that set the values the speaker has by now (no write, no EntityChangedEvent). After a failed
+// flush the updates stay pending and are retried; updates made later win over them field by field.
+// Updates still in the journal at startup are replayed.
+@Component
+public class SpeakerWriteBehind implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(SpeakerWriteBehind.class);
+
+    private record Field(Function<Speaker, String> getter, BiConsumer<Speaker, String> setter) {
+    }
+
+    // JSON name -> accessors, the fields an async update can change
+    private static final Map<String, Field> FIELDS = Map.of(
+            "first_name", new Field(Speaker::getFirst_name, Speaker::setFirst_name),
+            "last_name", new Field(Speaker::getLast_name, Speaker::setLast_name),
+            "title", new Field(Speaker::getTitle, Speaker::setTitle),
+            "company", new Field(Speaker::getCompany, Speaker::setCompany),
+            "speaker_bio", new Field(Speaker::getSpeaker_bio, Speaker::setSpeaker_bio));
+
+    // value of a field and the value it replaces, conditional: false for journal entries written without a base
+    private record Update(String value, String base, boolean conditional) {
+
+        boolean appliesTo(String current) {
+            return !conditional || Objects.equals(current, base);
+        }
+    }
+
+    // fields of a speaker not written yet, seq: the journal entry of the newest update merged in
+    private record Pending(Map<String, Update> fields, long seq) {
+
+        static Pending of(UpdateJournal.Entry entry) {
+            Map<String, Update> fields = new HashMap<>();
+            entry.fields().forEach((name, value) ->
+                    fields.put(name, new Update(value, entry.base().get(name), entry.base().containsKey(name))));
+            return new Pending(fields, entry.seq());
+        }
+
+        // A newer update of a field based on this one's value follows it, one based on a value
+        // written in between (synchronously) replaces it
+        Pending then(Pending newer) {
+            Map<String, Update> merged = new HashMap<>(fields);
+            newer.fields().forEach((name, update) -> merged.merge(name, update, (older, next) ->
+                    next.appliesTo(older.value()) ? new Update(next.value(), older.base(), older.conditional()) : next));
+            return new Pending(merged, Math.max(seq, newer.seq()));
+        }
+    }
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Object lock = new Object();
+    private final UpdateJournal journal;
+    private Map<Long, Pending> pending = new LinkedHashMap<>();
+    // the updates a flush is writing, until it is done
+    private Map<Long, Pending> flushing = Map.of();
+    private final ScheduledExecutorService writer;
+
+    public SpeakerWriteBehind(ObjectMapper objectMapper,
+                              @Value("${app.write-behind.journal}") Path journalPath,
+                              @Value("${app.write-behind.flush-interval}") Duration flushInterval) throws IOException {
+        this.journal = new UpdateJournal(journalPath, objectMapper);
+        for (UpdateJournal.Entry entry : journal.replay()) {
+            pending.merge(entry.speakerId(), Pending.of(entry), Pending::then);
+        }
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} speaker updates from {}", pending.size(), journalPath);
+        }
+        this.writer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("speaker-write-behind").factory());
+        this.writer.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Copy of the speaker with its pending (not yet written) fields applied: what the speaker will be.
+    // Fields changed synchronously since they were queued keep the speaker's value, see apply.
+    public Speaker withPending(Speaker speaker) {
+        Speaker copy = new Speaker();
+        copy.setSpeaker_id(speaker.getSpeaker_id());
+        copy.setVersion(speaker.getVersion());
+        FIELDS.values().forEach(field -> field.setter().accept(copy, field.getter().apply(speaker)));
+        synchronized (lock) {
+            // the speaker may have been read before the flush that is running commits
+            for (Pending update : new Pending[] {flushing.get(speaker.getSpeaker_id()), pending.get(speaker.getSpeaker_id())}) {
+                if (update != null) {
+                    apply(copy, update.fields());
+                }
+            }
+        }
+        return copy;
+    }
+
+    // Queues the fields of target that differ from base (what the client saw, see withPending),
+    // returns once the update is in the journal
+    public void enqueue(long speakerId, Speaker base, Speaker target) throws IOException {
+        Map<String, String> fields = new LinkedHashMap<>();
+        Map<String, String> bases = new LinkedHashMap<>();
+        FIELDS.forEach((name, field) -> {
+            String value = field.getter().apply(target);
+            if (!Objects.equals(field.getter().apply(base), value)) {
+                fields.put(name, value);
+                bases.put(name, field.getter().apply(base));
+            }
+        });
+        if (fields.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            long seq = journal.append(speakerId, fields, bases);
+            pending.merge(speakerId, Pending.of(new UpdateJournal.Entry(seq, speakerId, fields, bases)), Pending::then);
+        }
+    }
+
+    public int pendingSpeakers() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    // Writes everything pending now, returns the number of speakers updated
+    public int flush() {
+        Map<Long, Pending> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batch = pending;
+            flushing = Map.copyOf(batch);
+            pending = new LinkedHashMap<>();
+        }
+
+        // everything accepted up to here is in the batch, later updates get higher numbers
+        long appliedUpTo = batch.values().stream().mapToLong(Pending::seq).max().orElseThrow();
+        List<Long> updated = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        try {
+            for (int from = 0; from < ids.size(); from += BatchWriter.CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BatchWriter.CHUNK_SIZE));
+                List<Long> written = new ArrayList<>();
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    for (Long id : chunk) {
+                        Speaker speaker = entityManager.find(Speaker.class, id);
+                        if (speaker != null && apply(speaker, batch.get(id).fields())) {
+                            written.add(id);
+                        }
+                    }
+                });
+                updated.addAll(written);
+                chunk.forEach(batch::remove);
+            }
+        } catch (RuntimeException ex) {
+            // the chunks not written go back, under anything that came in meanwhile
+            synchronized (lock) {
+                flushing = Map.of();
+                Map<Long, Pending> retry = new LinkedHashMap<>(batch);
+                pending.forEach((id, newer) -> retry.merge(id, newer, Pending::then));
+                pending = retry;
+            }
+            throw ex;
+        } finally {
+            synchronized (lock) {
+                flushing = Map.of();
+            }
+            updated.forEach(id -> eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.SPEAKERS, id, Change.UPDATED)));
+        }
+
+        synchronized (lock) {
+            try {
+                if (pending.isEmpty()) {
+                    journal.truncate();
+                } else {
+                    journal.applied(appliedUpTo);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return updated.size();
+    }
+
+    // Sets the fields that still have their base value on the speaker, true if any of them changed
+    private static boolean apply(Speaker speaker, Map<String, Update> fields) {
+        boolean changed = false;
+        for (Map.Entry<String, Update> entry : fields.entrySet()) {
+            Field field = FIELDS.get(entry.getKey());
+            String current = field.getter().apply(speaker);
+            Update update = entry.getValue();
+            if (update.appliesTo(current) && !Objects.equals(current, update.value())) {
+                field.setter().accept(speaker, update.value());
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.write.behind.pending", this, SpeakerWriteBehind::pendingSpeakers)
+                .description("Speakers with accepted async updates not written yet")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Speaker updates left in the journal, they are written at the next start", ex);
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Writing speaker updates failed, retrying", ex);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.myswcompany.demo.services;
+
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.models.SessionLink;
+import com.myswcompany.demo.models.Stats;
+import com.myswcompany.demo.repositories.SessionRepository;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+// Counters behind /api/v1/stats: speakers per company, sessions per speaker, total and average session length.
+//
+// Built once the application is ready from two narrow queries (the company of every speaker, the length and
+// speaker links of every session). After that every EntityChangedEvent reads only the one row that changed and
+// applies the difference to the counters. An event only names the row, so the values each row had before are
+// kept too (a company per speaker, a length and speaker ids per session): they are what gets subtracted.
+// The read and the update of one row run under its RowLocks lock, so of two changes to it the newer read lands
+// last. The server takes requests before the application is ready, so a write can commit after the rebuild has
+// read the tables but before it replaces the counters: the changes that arrive during a rebuild are recorded and
+// read once more afterwards. Applying a change twice is harmless.
+//
+// stats() hands out read-only views of the counters (kept sorted), it never copies them or touches the database.
+@Component
+public class StatsAggregates {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsAggregates.class);
+
+    private record SessionFacts(Integer length, Set<Long> speakerIds) {
+    }
+
+    // written under the StatsAggregates lock, read by stats() without it
+    private static final class Counters {
+        final Map<Long, String> companies = new HashMap<>();
+        final Map<Long, SessionFacts> sessions = new HashMap<>();
+        final Map<String, Long> speakersPerCompany = new ConcurrentSkipListMap<>();
+        final Map<Long, Integer> sessionsPerSpeaker = new ConcurrentSkipListMap<>();
+        volatile long speakers;
+        volatile long sessionCount;
+        volatile long totalLength;
+        volatile long sessionsWithLength;
+    }
+
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final RowLocks rowLocks = new RowLocks(64);
+    // replaced by a rebuild
+    private volatile Counters counters = new Counters();
+    // changes that arrived while a rebuild runs, null when there is none; guarded by this
+    private Set<EntityChangedEvent> changedDuringRebuild;
+
+    // A database that isn't reachable yet doesn't keep the application from starting,
+    // the counters just stay empty until the next rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        recordChanges(new HashSet<>());
+        try {
+            Counters rebuilt = new Counters();
+            tx.executeWithoutResult(status -> {
+                speakerRepository.findCompanies().forEach(row -> putSpeaker(rebuilt, row.speakerId(), row.company()));
+                sessionRepository.findLinks().stream()
+                        .collect(Collectors.groupingBy(SessionLink::sessionId))
+                        .forEach((id, rows) -> putSession(rebuilt, id, facts(rows)));
+            });
+            synchronized (this) {
+                counters = rebuilt;
+            }
+            recordChanges(null).forEach(this::apply);
+            log.info("Stats built: {} speakers, {} sessions", rebuilt.speakers, rebuilt.sessionCount);
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Stats could not be built: {}", ex.getMessage());
+        } finally {
+            recordChanges(null);
+        }
+    }
+
+    // Starts (empty set) or stops (null) recording the changes, returns the ones recorded until now
+    private synchronized Set<EntityChangedEvent> recordChanges(Set<EntityChangedEvent> changed) {
+        Set<EntityChangedEvent> recorded = changedDuringRebuild;
+        changedDuringRebuild = changed;
+        return recorded == null ? Set.of() : recorded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+        }
+        apply(event);
+    }
+
+    // Reads the row the change is about as it is now
+    private void apply(EntityChangedEvent event) {
+        boolean deleted = event.change() == EntityChangedEvent.Change.DELETED;
+        if (EntityChangedEvent.SPEAKERS.equals(event.resource())) {
+            rowLocks.run(event.resource(), event.id(), () -> {
+                String company = deleted ? null : speakerRepository.findCompanyById(event.id()).orElse(null);
+                synchronized (this) {
+                    putSpeaker(counters, event.id(), company);
+                }
+            });
+        } else if (EntityChangedEvent.SESSIONS.equals(event.resource())) {
+            rowLocks.run(event.resource(), event.id(), () -> {
+                SessionFacts facts = deleted ? null : facts(sessionRepository.findLinks(event.id()));
+                synchronized (this) {
+                    putSession(counters, event.id(), facts);
+                }
+            });
+        }
+    }
+
+    public Stats stats() {
+        Counters current = counters;
+        long withLength = current.sessionsWithLength;
+        long total = current.totalLength;
+        return new Stats(current.speakers, Collections.unmodifiableMap(current.speakersPerCompany),
+                current.sessionCount, Collections.unmodifiableMap(current.sessionsPerSpeaker),
+                total, withLength == 0 ? 0 : (double) total / withLength);
+    }
+
+    // company null: the speaker is gone, and with it its session_speakers rows
+    private static void putSpeaker(Counters counters, Long id, String company) {
+        String previous = company == null ? counters.companies.remove(id) : counters.companies.put(id, company);
+        if (previous != null) {
+            counters.speakersPerCompany.computeIfPresent(previous, (key, count) -> count == 1 ? null : count - 1);
+        }
+        if (company != null) {
+            counters.speakersPerCompany.merge(company, 1L, Long::sum);
+            counters.sessionsPerSpeaker.putIfAbsent(id, 0);
+        } else {
+            Integer linked = counters.sessionsPerSpeaker.remove(id);
+            if (linked != null && linked > 0) {
+                counters.sessions.values().forEach(facts -> facts.speakerIds().remove(id));
+            }
+        }
+        counters.speakers = counters.companies.size();
+    }
+
+    // facts null: the session is gone
+    private static void putSession(Counters counters, Long id, SessionFacts facts) {
+        SessionFacts previous = facts == null ? counters.sessions.remove(id) : counters.sessions.put(id, facts);
+        if (previous != null) {
+            addLength(counters, previous.length(), -1);
+            previous.speakerIds().forEach(speakerId -> link(counters, speakerId, -1));
+        }
+        if (facts != null) {
+            addLength(counters, facts.length(), 1);
+            facts.speakerIds().forEach(speakerId -> link(counters, speakerId, 1));
+        }
+        counters.sessionCount = counters.sessions.size();
+    }
+
+    private static void addLength(Counters counters, Integer length, int sign) {
+        if (length != null) {
+            counters.totalLength += sign * length;
+            counters.sessionsWithLength += sign;
+        }
+    }
+
+    // Speakers without sessions keep their 0, links to unknown speakers don't leave one behind
+    private static void link(Counters counters, Long speakerId, int delta) {
+        counters.sessionsPerSpeaker.compute(speakerId, (key, count) -> {
+            int linked = (count == null ? 0 : count) + delta;
+            return linked == 0 && !counters.companies.containsKey(speakerId) ? null : linked;
+        });
+    }
+
+    // The rows of one session, null if there are none (the session doesn't exist)
+    private static SessionFacts facts(List<SessionLink> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Set<Long> speakerIds = new HashSet<>();
+        rows.forEach(row -> {
+            if (row.speakerId() != null) {
+                speakerIds.add(row.speakerId());
+            }
+        });
+        return new SessionFacts(rows.get(0).sessionLength(), speakerIds);
+    }
+}
@@ -0,0 +1,128 @@
+package com.myswcompany.demo.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Append-only journal of the accepted async speaker updates (SpeakerWriteBehind), one JSON line each:
+//   {"seq":12,"speaker_id":7,"fields":{"title":"CTO"},"base":{"title":"CEO"}}   an accepted update and the values
+//                                                          it replaces, on disk (fsync) before the 202
+//   {"applied":12}                                         everything up to seq 12 is in the database
+// After a restart the updates after the last "applied" are replayed. A torn last line (crash while writing)
+// is skipped, its request never got a 202. The file is emptied whenever everything in it has been applied.
+public class UpdateJournal implements Closeable {
+
+    // base: the values the fields had when the update was accepted, empty in entries written before it was added
+    public record Entry(long seq, long speakerId, Map<String, String> fields, Map<String, String> base) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    private long seq;
+
+    public UpdateJournal(Path path, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Updates that were accepted but not applied, in the order they were accepted
+    public synchronized List<Entry> replay() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long applied = 0;
+        String content = new String(readAll(), StandardCharsets.UTF_8);
+        for (String line : content.split("\n")) {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (IOException ex) {
+                continue;
+            }
+            if (node == null || !node.isObject()) {
+                continue;
+            }
+            if (node.has("applied")) {
+                applied = node.get("applied").asLong();
+            } else if (node.has("seq") && node.has("speaker_id") && node.has("fields")) {
+                entries.add(new Entry(node.get("seq").asLong(), node.get("speaker_id").asLong(),
+                        texts(node.get("fields")), texts(node.path("base"))));
+            }
+            seq = Math.max(seq, node.path("seq").asLong(node.path("applied").asLong()));
+        }
+        long appliedUpTo = applied;
+        entries.removeIf(entry -> entry.seq() <= appliedUpTo);
+        // a torn line is left behind, new lines start on a line of their own
+        channel.position(channel.size());
+        if (channel.size() > 0 && !content.endsWith("\n")) {
+            write("\n");
+        }
+        return entries;
+    }
+
+    // Returns the sequence number of the update once it is on disk
+    public synchronized long append(long speakerId, Map<String, String> fields, Map<String, String> base) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("seq", ++seq);
+        line.put("speaker_id", speakerId);
+        line.put("fields", fields);
+        line.put("base", base);
+        write(objectMapper.writeValueAsString(line) + "\n");
+        channel.force(false);
+        return seq;
+    }
+
+    public synchronized void applied(long upTo) throws IOException {
+        write(objectMapper.writeValueAsString(Map.of("applied", upTo)) + "\n");
+        channel.force(false);
+    }
+
+    // Only when every update in the journal has been applied
+    public synchronized void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // members of a JSON object, JSON null as null
+    private static Map<String, String> texts(JsonNode object) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        object.fields().forEachRemaining(field ->
+                texts.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+        return texts;
+    }
+
+    private byte[] readAll() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.position(0);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // read until full
+        }
+        return buffer.array();
+    }
+
+    private void write(String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.myswcompany.demo;
+
+import com.jayway.jsonpath.JsonPath;
+import com.myswcompany.demo.events.EntityChangedEvent;
+import com.myswcompany.demo.models.ChangeFeedEntry;
+import com.myswcompany.demo.services.ChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.myswcompany.demo.TestRequests.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"app.changes.buffer-size=5", "app.changes.stream-duration=3s", "app.changes.heartbeat=100ms"})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestChangeFeed {
+
+    private static final String SPEAKER = "{\"first_name\":\"Feed\",\"last_name\":\"Reader\",\"title\":\"%s\"," +
+            "\"company\":\"Changes Oy\",\"speaker_bio\":\"Streamed.\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Test
+    public void changesAreStreamedAsServerSentEvents() throws Exception
+    {
+        MvcResult stream = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        long id = createSpeaker("Developer");
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Architect")))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/speakers/{id}", id));
+
+        String events = awaitContent(stream, "event:deleted");
+        long created = changeFeed.lastSeq() - 2;
+        assertThat(events)
+                .contains("id:" + created + "\nevent:created\ndata:{\"seq\":" + created + ",\"resource\":\"speakers\",\"id\":" + id)
+                .contains("id:" + (created + 1) + "\nevent:updated\n")
+                .contains("id:" + (created + 2) + "\nevent:deleted\n");
+
+        // a reconnecting client continues after the last event it got
+        MvcResult resumed = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/changes").accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", created))
+                .andReturn();
+        String replayed = awaitContent(resumed, "event:deleted");
+        assertThat(replayed).doesNotContain("event:created").contains("event:updated");
+    }
+
+    @Test
+    public void aClientTooFarBehindGetsAReset() throws Exception
+    {
+        long before = changeFeed.lastSeq();
+        for (int i = 0; i < 6; i++) {
+            createSpeaker("Developer " + i);
+        }
+
+        // six changes don't fit into a buffer of five
+        assertThat(changeFeed.read(before, 100, Duration.ZERO)).isEmpty();
+        List<ChangeFeedEntry> retained = changeFeed.read(before + 1, 100, Duration.ZERO).orElseThrow();
+        assertThat(retained).extracting(ChangeFeedEntry::seq).containsExactly(before + 2, before + 3, before + 4, before + 5, before + 6);
+
+        MvcResult stream = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/changes").param("since", Long.toString(before))
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+        awaitContent(stream, "{\"reset\":" + (before + 6) + "}\n");
+
+        createSpeaker("After the reset");
+        String lines = awaitContent(stream, "\"change\":\"created\"");
+        assertThat(JsonPath.<Number>read(lines.lines().filter(line -> line.contains("\"seq\"")).findFirst().orElseThrow(), "$.seq").longValue())
+                .isEqualTo(before + 7);
+    }
+
+    @Test
+    public void numbersOfAnotherRunGetAReset() throws Exception
+    {
+        ChangeFeed earlier = new ChangeFeed(5, 1, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        earlier.onEntityChanged(new EntityChangedEvent(EntityChangedEvent.SPEAKERS, 1L, EntityChangedEvent.Change.CREATED));
+        Thread.sleep(2);
+        ChangeFeed restarted = new ChangeFeed(5, 1, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+        // the numbers continue above the earlier run's, which the new run doesn't know
+        assertThat(restarted.lastSeq()).isGreaterThan(earlier.lastSeq());
+        assertThat(restarted.read(earlier.lastSeq(), 100, Duration.ZERO)).isEmpty();
+        assertThat(restarted.read(0, 100, Duration.ZERO)).isEmpty();
+        assertThat(restarted.read(restarted.lastSeq(), 100, Duration.ZERO)).contains(List.of());
+    }
+
+    private static String awaitContent(MvcResult stream, String expected) throws Exception
+    {
+        long deadline = System.nanoTime() + Duration.ofSeconds(3).toNanos();
+        String content = stream.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private long createSpeaker(String title) throws Exception
+    {
+        return create(mockMvc, "/api/v1/speakers", SPEAKER.formatted(title));
+    }
+}
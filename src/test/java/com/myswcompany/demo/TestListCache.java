@@ -0,0 +1,88 @@
+package com.myswcompany.demo;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestListCache {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static String speaker(String firstName) {
+        return "{\"first_name\":\"" + firstName + "\",\"last_name\":\"Speaker\",\"title\":\"Developer Advocate\"," +
+                "\"company\":\"Conference Company\",\"speaker_bio\":\"Talks about caching and compression.\"}";
+    }
+
+    @Test
+    public void listIsServedGzippedFromTheCacheAndRebuiltAfterWrites() throws Exception
+    {
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            batch.append(speaker("Cached" + i)).append('\n');
+        }
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers:batch")
+                        .contentType(MediaType.APPLICATION_NDJSON).content(batch.toString()))
+                .andExpect(status().isOk());
+
+        byte[] json = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        MockHttpServletResponse gzipped = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+        assertThat(gzipped.getContentAsByteArray().length).isLessThan(json.length);
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray())).readAllBytes()).isEqualTo(json);
+
+        // different bytes, same weak ETag, and a gzip client still gets its 304
+        String etag = gzipped.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // fingerprint from the query cache, body from the list cache: no SQL at all
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers")).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers")
+                        .contentType(MediaType.APPLICATION_JSON).content(speaker("Added")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].first_name", hasItem("Added")))
+                .andExpect(jsonPath("$.length()").value(JsonPath.<List<?>>read(new String(json), "$").size() + 1));
+    }
+}
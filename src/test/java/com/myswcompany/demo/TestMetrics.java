@@ -0,0 +1,66 @@
+package com.myswcompany.demo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("h2")
+public class TestMetrics {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void prometheusScrapeContainsRequestRepositoryPoolAndHibernateMeters() throws Exception
+    {
+        // a write makes the next list request miss the query cache
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"first_name\":\"Mette\",\"last_name\":\"Metrics\",\"title\":\"Developer\",\"company\":\"Acme\"}"))
+                .andExpect(status().isCreated());
+        double misses = queryCacheMisses();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers")).andExpect(status().isOk());
+
+        assertThat(queryCacheMisses()).isGreaterThan(misses);
+        assertThat(meterRegistry.get("http.server.requests").tag("application", "conference-app")
+                .tag("handler", "SpeakersController.listAllSpeakers").timer().count())
+                .isPositive();
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "SpeakerRepository").tag("method", "findAllViews").timer().count())
+                .isPositive();
+
+        // meter names only: label order, escaping and values are up to the exposition format
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("quantile=\"0.99\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_count{")))
+                .andExpect(content().string(containsString("hikaricp_connections_active{")))
+                .andExpect(content().string(containsString("hibernate_cache_query_requests_total{")))
+                .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total{")))
+                .andExpect(content().string(containsString("hibernate_flushes_total{")));
+    }
+
+    private double queryCacheMisses()
+    {
+        return meterRegistry.get("hibernate.cache.query.requests").tag("result", "miss").functionCounter().count();
+    }
+}
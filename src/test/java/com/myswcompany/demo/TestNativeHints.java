@@ -0,0 +1,32 @@
+package com.myswcompany.demo;
+
+import com.github.fge.jsonpatch.ReplaceOperation;
+import com.myswcompany.demo.config.NativeHints;
+import com.myswcompany.demo.exceptions.ResourceNotFoundException;
+import com.myswcompany.demo.models.SessionRow;
+import com.myswcompany.demo.models.Speaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestNativeHints {
+
+    @Test
+    public void hintsCoverReflectionOnlyTypes() throws Exception
+    {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Speaker.class.getMethod("getFirst_name"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ReplaceOperation.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(SessionRow.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ResourceNotFoundException.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("application.conf")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("com/github/fge/jsonpatch/messages.properties")).accepts(hints);
+    }
+}
@@ -0,0 +1,82 @@
+package com.myswcompany.demo;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Map;
+
+import static com.myswcompany.demo.TestRequests.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestProjections {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void readsSelectOnlyTheRequestedFieldsWithoutLoadingEntities() throws Exception
+    {
+        long speaker = create(mockMvc, "/api/v1/speakers", "{\"first_name\":\"Sparse\",\"last_name\":\"Fieldset\",\"title\":\"Architect\"," +
+                "\"company\":\"Projections Oy\",\"speaker_bio\":\"A long biography nobody asked for.\"}");
+        long session = create(mockMvc, "/api/v1/sessions", "{\"session_name\":\"Projections\",\"session_description\":\"Long text\"," +
+                "\"session_length\":45,\"speakers\":[{\"speaker_id\":" + speaker + "}]}");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // all fields: same JSON as before, built from records
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", speaker))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.speaker_bio").value("A long biography nobody asked for."))
+                .andExpect(jsonPath("$.version").doesNotExist());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/sessions/{id}", session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.session_description").value("Long text"))
+                .andExpect(jsonPath("$.speakers[0].first_name").value("Sparse"));
+
+        // sparse: the id and the listed fields only, in any order
+        String single = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", speaker).param("fields", "last_name,first_name"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(JsonPath.<Map<String, Object>>read(single, "$")).containsOnlyKeys("speaker_id", "first_name", "last_name");
+
+        String page = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers").param("fields", "first_name").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].first_name", hasItem("Sparse")))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(JsonPath.<Map<String, Object>>read(page, "$[0]")).containsOnlyKeys("speaker_id", "first_name");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/sessions").param("fields", "session_name,speakers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.session_id == " + session + ")].speakers[0].speaker_id").value(hasItem((int) speaker)))
+                .andExpect(jsonPath("$[0].session_description").doesNotExist());
+
+        // nothing went through the persistence context
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers").param("fields", "first_name,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.startsWith("Unknown field: password")));
+    }
+}
@@ -0,0 +1,143 @@
+package com.myswcompany.demo;
+
+import com.jayway.jsonpath.JsonPath;
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import com.myswcompany.demo.services.ReplaceWriter;
+import com.myswcompany.demo.services.ReplaceWriter.Outcome;
+import com.myswcompany.demo.services.ReplaceWriter.Replaced;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.myswcompany.demo.TestRequests.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestPutWrites {
+
+    private static final String SPEAKER = "{\"first_name\":\"Put\",\"last_name\":\"Writer\",\"title\":\"%s\"," +
+            "\"company\":\"Writes Oy\",\"speaker_bio\":\"Same bio every time.\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReplaceWriter replaceWriter;
+
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void putWritesOnlyWhenTheBodyChangesSomething() throws Exception
+    {
+        String body = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers")
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Developer")))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = JsonPath.<Number>read(body, "$.speaker_id").longValue();
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", id))
+                .andReturn().getResponse().getHeader("ETag");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // same state: no statement at all, the current row comes from the second-level cache
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", id).header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Developer")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+
+        // one changed column: one UPDATE, new version
+        String changed = mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", id).header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Architect")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Architect"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(changed).isNotEqualTo(etag);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", id).header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Developer")))
+                .andExpect(status().isPreconditionFailed());
+
+        // missing row: a single insert, no update
+        statistics.clear();
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", 987654321L)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Developer")))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("ETag"));
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", 987654322L).header("If-Match", "*")
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Developer")))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void aConcurrentUpdateIsWrittenOnceMoreOnTheNewerRow() throws Exception
+    {
+        long id = create(mockMvc, "/api/v1/speakers", SPEAKER.formatted("Developer"));
+        long seen = speakerRepository.findById(id).orElseThrow().getVersion();
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger otherWrites = new AtomicInteger();
+        // another writer commits between the read and the flush of the first `races` attempts
+        Consumer<Integer> race = races -> {
+            if (attempts.incrementAndGet() <= races) {
+                other.executeWithoutResult(status -> speakerRepository.findById(id).orElseThrow()
+                        .setCompany("Other " + otherWrites.incrementAndGet()));
+            }
+        };
+
+        // without If-Match the body goes onto the newer row
+        Replaced<Speaker> replaced = replaceWriter.replace(Speaker.class, id, Speaker::getVersion, version -> true,
+                speaker -> { race.accept(1); speaker.setTitle("Architect"); }, Speaker::new);
+        assertThat(replaced.outcome()).isEqualTo(Outcome.UPDATED);
+        assertThat(attempts.get()).isEqualTo(2);
+        Speaker stored = speakerRepository.findById(id).orElseThrow();
+        assertThat(stored.getTitle()).isEqualTo("Architect");
+        assertThat(stored.getCompany()).isEqualTo("Other 1");
+
+        // with If-Match the precondition fails on the newer row
+        attempts.set(0);
+        long current = stored.getVersion();
+        assertThat(replaceWriter.replace(Speaker.class, id, Speaker::getVersion, version -> version == current,
+                speaker -> { race.accept(1); speaker.setTitle("Lead"); }, Speaker::new).outcome())
+                .isEqualTo(Outcome.PRECONDITION_FAILED);
+        assertThat(current).isGreaterThan(seen);
+
+        // losing the race twice is a conflict
+        attempts.set(0);
+        assertThat(replaceWriter.replace(Speaker.class, id, Speaker::getVersion, version -> true,
+                speaker -> { race.accept(2); speaker.setTitle("Lead"); }, Speaker::new).outcome())
+                .isEqualTo(Outcome.CONFLICT);
+        assertThat(speakerRepository.findById(id).orElseThrow().getTitle()).isEqualTo("Architect");
+    }
+}
@@ -0,0 +1,158 @@
+package com.myswcompany.demo;
+
+import com.myswcompany.demo.filters.RateLimitFilter;
+import com.myswcompany.demo.filters.RateLimitFilter.Group;
+import com.myswcompany.demo.filters.RateLimitFilter.Limit;
+import com.myswcompany.demo.filters.RateLimitFilter.Outcome;
+import com.myswcompany.demo.filters.TokenBucket;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "app.rate-limit.enabled=true",
+        "app.rate-limit.read.rate=1",
+        "app.rate-limit.read.burst=50",
+        "app.rate-limit.write.rate=1",
+        "app.rate-limit.write.burst=5",
+        "spring.datasource.hikari.maximum-pool-size=2"})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestRateLimit {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Many threads racing on one bucket: exactly the burst gets through, plus whatever refilled meanwhile
+    @Test
+    public void tokenBucketAdmitsBurstUnderContention() throws Exception
+    {
+        long start = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(10, 1000, start);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        try (ExecutorService threads = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                threads.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < 1000; i++) {
+                        if (bucket.tryAcquire(System.nanoTime()) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            go.countDown();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        assertThat(allowed.get()).isBetween(1000, 1000 + (int) Math.ceil(elapsedSeconds * 10) + 1);
+    }
+
+    @Test
+    public void clientsOverTheirLimitGet429() throws Exception
+    {
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger limited = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        try (ExecutorService threads = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                clients.add(threads.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < 5; i++) {
+                        int status = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers").header("X-API-Key", "burst"))
+                                .andReturn().getResponse().getStatus();
+                        (status == 429 ? limited : ok).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        }
+        // 160 requests against a burst of 50 at 1/s
+        assertThat(ok.get()).isBetween(50, 55);
+        assertThat(limited.get()).isEqualTo(THREADS * 5 - ok.get());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers").header("X-API-Key", "burst"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+        // other clients and the write group have buckets of their own
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers").header("X-API-Key", "calm"))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/speakers/{id}", 987654321L).header("X-API-Key", "burst"))
+                .andExpect(status().isNotFound());
+
+        assertThat(meterRegistry.get("app.rate.limit.requests").tag("group", "read").tag("outcome", "limited")
+                .functionCounter().count()).isGreaterThanOrEqualTo(limited.get() + 1);
+    }
+
+    @Test
+    public void requestsAreShedWhileThreadsWaitForConnections() throws Exception
+    {
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        // shed as soon as anyone waits for a connection
+        RateLimitFilter filter = new RateLimitFilter(new Limit(1, 50), new Limit(1, 5), Duration.ofMinutes(1),
+                () -> pool.getHikariPoolMXBean().getThreadsAwaitingConnection(), 0, Duration.ofSeconds(2));
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/speakers"), admitted, new MockFilterChain());
+        assertThat(admitted.getStatus()).isEqualTo(200);
+
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection();
+             ExecutorService waiter = Executors.newSingleThreadExecutor()) {
+            // the pool is exhausted, a third caller queues up
+            Future<?> waiting = waiter.submit(() -> {
+                try (Connection third = dataSource.getConnection()) {
+                    return null;
+                }
+            });
+            while (pool.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+                Thread.sleep(10);
+            }
+
+            MockHttpServletResponse shed = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/speakers"), shed, new MockFilterChain());
+            assertThat(shed.getStatus()).isEqualTo(503);
+            assertThat(shed.getHeader("Retry-After")).isEqualTo("2");
+            assertThat(filter.count(Group.READ, Outcome.SHED)).isEqualTo(1);
+
+            first.close();
+            waiting.get();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.myswcompany.demo;
+
+import com.jayway.jsonpath.JsonPath;
+import com.myswcompany.demo.datasource.ReplicaPool;
+import com.myswcompany.demo.datasource.ReplicaPool.Target;
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.models.SpeakerView;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import com.myswcompany.demo.services.CoalescedReads;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two in-memory H2 databases standing in for a primary and a replica. Nothing replicates between them,
+// which makes it visible where a read was served from.
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + TestReadReplicas.PRIMARY,
+        "app.replicas.urls=" + TestReadReplicas.REPLICA + ";IFEXISTS=TRUE",
+        "app.replicas.max-lag=1s",
+        "app.replicas.health-check-interval=100ms",
+        "spring.datasource.hikari.connection-timeout=1000"})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestReadReplicas {
+
+    static final String PRIMARY = "jdbc:h2:mem:replicas_primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+    static final String REPLICA = "jdbc:h2:mem:replicas_replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    private static final String INSERT_SPEAKER = "insert into speakers (speaker_id, first_name, last_name, title, company, version) " +
+            "values (%d, '%s', 'Replica', 'Dev', 'Replicas Oy', 0)";
+
+    static {
+        // A real replica has the schema from replication. Here it is created the way ddl-auto creates it on the primary,
+        // before the application starts (reads at startup, e.g. the search index, already go to the replica)
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, REPLICA)
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .applySetting(AvailableSettings.JAKARTA_JDBC_PASSWORD, "")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .applySetting(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName())
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .build();
+        new MetadataSources(registry).addAnnotatedClass(Speaker.class).addAnnotatedClass(Session.class)
+                .buildMetadata().buildSessionFactory().close();
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CoalescedReads coalescedReads;
+
+    // holds the loads of unpinned callers until released
+    @SpyBean
+    private SpeakerRepository speakerRepository;
+
+    @Test
+    public void readsGoToTheReplicaUnlessTheClientJustWrote() throws Exception
+    {
+        execute(REPLICA, INSERT_SPEAKER.formatted(900001, "OnlyOnReplica"));
+
+        // a row that exists on the replica only: the read was served there
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", 900001).header("X-API-Key", "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.first_name").value("OnlyOnReplica"));
+        assertThat(replicaPool.connections(Target.REPLICA)).isPositive();
+
+        // a rejected write doesn't pin the client to the primary
+        long fromReplica = replicaPool.connections(Target.REPLICA);
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers").header("X-API-Key", "reader")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"first_name\":\"\"}"))
+                .andExpect(status().isBadRequest());
+        execute(REPLICA, INSERT_SPEAKER.formatted(900003, "AlsoOnReplica"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", 900003).header("X-API-Key", "reader"))
+                .andExpect(status().isOk());
+        assertThat(replicaPool.connections(Target.REPLICA)).isGreaterThan(fromReplica);
+
+        // the write goes to the primary, and the writer reads it back from there
+        String body = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers").header("X-API-Key", "writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"first_name\":\"Written\",\"last_name\":\"Primary\",\"title\":\"Dev\",\"company\":\"Primary Oy\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long written = JsonPath.<Number>read(body, "$.speaker_id").longValue();
+        long fromPrimary = replicaPool.connections(Target.PRIMARY);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", written).header("X-API-Key", "writer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.first_name").value("Written"));
+        assertThat(replicaPool.connections(Target.PRIMARY)).isGreaterThan(fromPrimary);
+
+        // other clients keep reading from the replica right after the write, but what they read there
+        // may miss the write, so it stays out of the shared caches until max-lag has passed
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        execute(REPLICA, INSERT_SPEAKER.formatted(900004, "LaggingReplica"));
+        fromReplica = replicaPool.connections(Target.REPLICA);
+        long puts = statistics.getQueryCachePutCount() + statistics.getSecondLevelCachePutCount();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", 900004).header("X-API-Key", "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.first_name").value("LaggingReplica"));
+        assertThat(replicaPool.connections(Target.REPLICA)).isGreaterThan(fromReplica);
+        assertThat(statistics.getQueryCachePutCount() + statistics.getSecondLevelCachePutCount()).isEqualTo(puts);
+        Thread.sleep(1100);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", 900004).header("X-API-Key", "reader"))
+                .andExpect(status().isOk());
+        assertThat(statistics.getQueryCachePutCount() + statistics.getSecondLevelCachePutCount()).isGreaterThan(puts);
+
+        // replica gone: it fails its health check and reads fall back to the primary
+        execute(REPLICA, "shutdown");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (replicaPool.healthyReplicas() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(replicaPool.healthyReplicas()).isZero();
+
+        execute(PRIMARY, INSERT_SPEAKER.formatted(900002, "OnlyOnPrimary"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", 900002).header("X-API-Key", "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.first_name").value("OnlyOnPrimary"));
+    }
+
+    @Test
+    public void aClientThatJustWroteDoesNotJoinAnotherClientsLoad() throws Exception
+    {
+        execute(PRIMARY, INSERT_SPEAKER.formatted(900005, "JustWritten"));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Answer<?> repository = Mockito.mockingDetails(speakerRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            if (!ReplicaPool.pinned()) {
+                loading.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return repository.answer(invocation);
+        }).when(speakerRepository).findViewById(900005L);
+
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            // another client's load, from a replica that may not have the write
+            Future<Optional<SpeakerView>> other = clients.submit(() -> coalescedReads.speakerView(900005L));
+            assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // the writer reads the primary itself instead of waiting for that load
+            Future<Optional<SpeakerView>> writer = clients.submit(() -> {
+                ReplicaPool.pin();
+                try {
+                    return coalescedReads.speakerView(900005L);
+                } finally {
+                    ReplicaPool.unpin();
+                }
+            });
+            assertThat(writer.get(5, TimeUnit.SECONDS)).isPresent();
+            release.countDown();
+            other.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            clients.shutdownNow();
+        }
+    }
+
+    private static void execute(String url, String sql) throws SQLException
+    {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
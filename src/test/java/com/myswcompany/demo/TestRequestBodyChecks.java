@@ -0,0 +1,117 @@
+package com.myswcompany.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myswcompany.demo.exceptions.ResourceNotFoundException;
+import com.myswcompany.demo.filters.JsonBodyPrecheckFilter;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.request-body.max-size=1KB")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestRequestBodyChecks {
+
+    private static final String SPEAKER = "{\"first_name\":\"Body\",\"last_name\":\"Check\",\"title\":\"Developer\"," +
+            "\"company\":\"Precheck Oy\",\"speaker_bio\":\"%s\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void malformedAndOversizeBodiesAreRejectedBeforeBinding() throws Exception
+    {
+        for (String body : new String[]{"{\"first_name\":", "\"just a string\"", "{} {}", "", "[[[[[[[[[1]]]]]]]]]"}) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.msg").value("Malformed JSON request"));
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON)
+                        .content(SPEAKER.formatted("x".repeat(2000))))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.errors[0]").value("body: at most 1024 bytes"));
+
+        // what passes is bound from the buffered body as before
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON)
+                        .content(SPEAKER.formatted("Fits.")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.company").value("Precheck Oy"));
+    }
+
+    @Test
+    public void theBufferedBodyCanBeReadNonBlocking() throws Exception
+    {
+        JsonBodyPrecheckFilter filter = new JsonBodyPrecheckFilter(new ObjectMapper(), 1024, 10);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/speakers");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(SPEAKER.formatted("Read async.").getBytes(StandardCharsets.UTF_8));
+        AtomicReference<ServletRequest> passed = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> passed.set(req));
+
+        ServletInputStream in = passed.get().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> calls = new ArrayList<>();
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                calls.add("onDataAvailable");
+                byte[] buffer = new byte[64];
+                while (in.isReady() && !in.isFinished()) {
+                    read.write(buffer, 0, in.read(buffer));
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                calls.add("onAllDataRead");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                calls.add("onError");
+            }
+        });
+        assertThat(calls).containsExactly("onDataAvailable", "onAllDataRead");
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(SPEAKER.formatted("Read async."));
+    }
+
+    @Test
+    public void validationErrorsAreStillReportedPerField() throws Exception
+    {
+        String invalid = "{\"first_name\":\"X\",\"last_name\":\"Check\",\"title\":\"Developer\",\"company\":\"Precheck Oy\"}";
+        for (int i = 0; i < 2; i++) {
+            // the second body comes from the cache of serialized errors
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON).content(invalid))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.msg").value("Validation error(s) occurred."))
+                    .andExpect(jsonPath("$.errors[0]").value("firstName: Size of the first_name has to be between 2 - 30 characters"));
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", 987654321L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Speaker not found: 987654321"));
+        assertThat(new ResourceNotFoundException("Speaker not found: 1").getStackTrace()).isEmpty();
+    }
+}
@@ -0,0 +1,24 @@
+package com.myswcompany.demo;
+
+import com.jayway.jsonpath.JsonPath;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Requests shared by the MockMvc tests
+final class TestRequests {
+
+    private TestRequests() {
+    }
+
+    // POSTs a speaker (path ending in "speakers") or a session, expects 201 and returns the generated id
+    static long create(MockMvc mockMvc, String path, String json) throws Exception
+    {
+        String body = mockMvc.perform(MockMvcRequestBuilders.post(path).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.<Number>read(body, path.endsWith("speakers") ? "$.speaker_id" : "$.session_id").longValue();
+    }
+}
@@ -0,0 +1,66 @@
+package com.myswcompany.demo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static com.myswcompany.demo.TestRequests.create;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestSearch {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void searchFindsWordsAndPrefixesRankedByField() throws Exception
+    {
+        long inName = create(mockMvc, "/api/v1/speakers", "{\"first_name\":\"Zanthia\",\"last_name\":\"Mäkinen\",\"title\":\"Architect\"," +
+                "\"company\":\"Quasarix\",\"speaker_bio\":\"Builds databases.\"}");
+        long inBio = create(mockMvc, "/api/v1/speakers", "{\"first_name\":\"Olli\",\"last_name\":\"Virtanen\",\"title\":\"Developer\"," +
+                "\"company\":\"Other\",\"speaker_bio\":\"Worked with Zanthia on Quasarix clusters.\"}");
+        long session = create(mockMvc, "/api/v1/sessions", "{\"session_name\":\"Quasarix internals\"," +
+                "\"session_description\":\"How the storage engine works\",\"session_length\":45}");
+
+        // a name outranks a bio
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/search").param("q", "zanthia"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(inName))
+                .andExpect(jsonPath("$[0].title").value("Zanthia Mäkinen"))
+                .andExpect(jsonPath("$[1].id").value(inBio));
+
+        // prefixes, accents folded, every word has to match
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/search").param("q", "makin quasa"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(inName));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/search").param("q", "quasarix storage"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].resource").value("sessions"))
+                .andExpect(jsonPath("$[0].id").value(session));
+
+        // updates and deletes through the controllers are reflected right away
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", inName).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"first_name\":\"Xerxa\",\"last_name\":\"Mäkinen\",\"title\":\"Architect\"," +
+                                "\"company\":\"Quasarix\",\"speaker_bio\":\"Builds databases.\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/search").param("q", "zanthia"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(inBio));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/search").param("q", "xerxa"))
+                .andExpect(jsonPath("$[0].id").value(inName));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/speakers/{id}", inBio)).andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/search").param("q", "zanthia"))
+                .andExpect(jsonPath("$", empty()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.myswcompany.demo;
+
+import com.myswcompany.demo.services.CoalescedReads;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static com.myswcompany.demo.TestRequests.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestSessionRestController {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CoalescedReads coalescedReads;
+
+    private Statistics statistics;
+
+    // A new session: the list isn't cached under its ETag yet. The ETag is made of the table fingerprints,
+    // cached in the query cache after their first read, so only the list itself is counted.
+    @BeforeEach
+    public void clearStatistics() throws Exception
+    {
+        long speaker = create(mockMvc, "/api/v1/speakers", "{\"first_name\":\"Counted\",\"last_name\":\"Statements\"," +
+                "\"title\":\"Developer\",\"company\":\"Queries Oy\"}");
+        create(mockMvc, "/api/v1/sessions", "{\"session_name\":\"Counting statements\",\"session_description\":\"Queries\"," +
+                "\"session_length\":30,\"speakers\":[{\"speaker_id\":" + speaker + "}]}");
+        coalescedReads.sessionFingerprint();
+        coalescedReads.speakerFingerprint();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // sessions and their speakers are join fetched: one statement no matter how many sessions there are
+    @Test
+    public void listAllSessionsLoadsSpeakersInOneStatement() throws Exception
+    {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/v1/sessions")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // a page of up to 100 sessions: one statement for the page + one batch for the speakers
+    @Test
+    public void listSessionsPageLoadsSpeakersInOneBatch() throws Exception
+    {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/v1/sessions")
+                        .param("limit", "100")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+}
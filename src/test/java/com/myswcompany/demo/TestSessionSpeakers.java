@@ -0,0 +1,137 @@
+package com.myswcompany.demo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static com.myswcompany.demo.TestRequests.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestSessionSpeakers {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private long speaker(String firstName) throws Exception
+    {
+        return create(mockMvc, "/api/v1/speakers", "{\"first_name\":\"" + firstName + "\",\"last_name\":\"Linked\",\"title\":\"Dev\"," +
+                "\"company\":\"Links Oy\",\"speaker_bio\":\"bio\"}");
+    }
+
+    @Test
+    public void speakersAreLinkedAndUnlinkedByDelta() throws Exception
+    {
+        long anna = speaker("Anna");
+        long ben = speaker("Ben");
+        long session = create(mockMvc, "/api/v1/sessions", "{\"session_name\":\"Links\",\"session_description\":\"Delta writes\"," +
+                "\"session_length\":30,\"speakers\":[{\"speaker_id\":" + anna + "}]}");
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/sessions/{id}", session))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Anna is already linked, only Ben is added and the version moves
+        String linked = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/sessions/{id}/speakers", session)
+                        .header("If-Match", etag).contentType(MediaType.APPLICATION_JSON).content("[" + anna + "," + ben + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.speakers[*].speaker_id", containsInAnyOrder((int) anna, (int) ben)))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(linked).isNotEqualTo(etag);
+
+        // the old ETag is stale now
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/sessions/{id}/speakers", session)
+                        .header("If-Match", etag).contentType(MediaType.APPLICATION_JSON).content("[" + ben + "]"))
+                .andExpect(status().isPreconditionFailed());
+
+        // nothing to add: no write, same version
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/sessions/{id}/speakers", session)
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + ben + "]"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", linked));
+
+        // unknown ids reject the whole request
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/sessions/{id}/speakers", session)
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + ben + ",987654321]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("speaker_id: 987654321 not found"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}/sessions", ben))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].session_id", containsInAnyOrder((int) session)))
+                .andExpect(jsonPath("$[0].speakers", hasSize(2)));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/sessions/{id}/speakers", session)
+                        .header("If-Match", linked).contentType(MediaType.APPLICATION_JSON).content("[" + ben + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.speakers[*].speaker_id", containsInAnyOrder((int) anna)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}/sessions", ben))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/sessions/{id}", session))
+                .andExpect(jsonPath("$.speakers[*].speaker_id", containsInAnyOrder((int) anna)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/sessions/{id}/speakers", 987654321L)
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + anna + "]"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}/sessions", 987654321L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void aSpeakerIsLinkedOnce() throws Exception
+    {
+        long anna = speaker("Anna");
+        long session = create(mockMvc, "/api/v1/sessions", "{\"session_name\":\"Twice\",\"session_description\":\"Unique links\"," +
+                "\"session_length\":30,\"speakers\":[{\"speaker_id\":" + anna + "},{\"speaker_id\":" + anna + "}]}");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/sessions/{id}/speakers", session)
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + anna + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.speakers", hasSize(1)));
+    }
+
+    @Test
+    public void sessionETagCoversItsSpeakers() throws Exception
+    {
+        long cecilia = speaker("Cecilia");
+        long session = create(mockMvc, "/api/v1/sessions", "{\"session_name\":\"Embedded\",\"session_description\":\"Speaker data\"," +
+                "\"session_length\":30,\"speakers\":[{\"speaker_id\":" + cecilia + "}]}");
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/sessions/{id}", session))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/sessions/{id}", session).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // the session row is untouched, but its body shows the renamed speaker
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", cecilia).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"first_name\":\"Cilla\",\"last_name\":\"Linked\",\"title\":\"Dev\",\"company\":\"Links Oy\"," +
+                                "\"speaker_bio\":\"bio\"}"))
+                .andExpect(status().isOk());
+        String renamed = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/sessions/{id}", session).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.speakers[0].first_name").value("Cilla"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(renamed).isNotEqualTo(etag);
+
+        // writes check If-Match against the same tag
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/sessions/{id}", session).header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"session_name\":\"Embedded\",\"session_description\":\"Changed\",\"session_length\":30}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/sessions/{id}", session).header("If-Match", renamed)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"session_name\":\"Embedded\",\"session_description\":\"Changed\",\"session_length\":30}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(renamed)));
+    }
+}
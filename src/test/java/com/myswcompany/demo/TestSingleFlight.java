@@ -0,0 +1,111 @@
+package com.myswcompany.demo;
+
+import com.myswcompany.demo.services.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestSingleFlight {
+
+    private static final int CALLERS = 50;
+
+    @Test
+    public void concurrentCallersShareOneLoad() throws Exception
+    {
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> flight.load(7L, () -> {
+                    queries.incrementAndGet();
+                    await(release);
+                    return "speaker 7";
+                })));
+            }
+            // the load is held until everybody else is waiting for it
+            while (flight.shared() < CALLERS - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("speaker 7");
+            }
+        }
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(flight.loads()).isEqualTo(1);
+
+        // nothing is cached once the load is done
+        assertThat(flight.load(7L, () -> "again")).isEqualTo("again");
+    }
+
+    @Test
+    public void failuresReachEveryWaitingCaller() throws Exception
+    {
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = callers.submit(() -> flight.load(1L, () -> {
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            while (flight.loads() == 0) {
+                Thread.sleep(5);
+            }
+            Future<String> second = callers.submit(() -> flight.load(1L, () -> "not run"));
+            while (flight.shared() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertThatThrownBy(first::get).hasRootCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(second::get).hasRootCauseMessage("database down");
+        }
+    }
+
+    @Test
+    public void callersAfterForgetAllStartANewLoad() throws Exception
+    {
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> stale = callers.submit(() -> flight.load(1L, () -> {
+                await(release);
+                return "before the write";
+            }));
+            while (flight.loads() == 0) {
+                Thread.sleep(5);
+            }
+
+            flight.forgetAll();
+            assertThat(flight.load(1L, () -> "after the write")).isEqualTo("after the write");
+
+            release.countDown();
+            assertThat(stale.get()).isEqualTo("before the write");
+        }
+        assertThat(flight.shared()).isZero();
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
@@ -34,6 +35,42 @@ public class TestSpeakerRestController {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void getSpeakersPage() throws Exception
+    {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/v1/speakers")
+                        .param("limit", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.header().exists("X-Next-Cursor"));
+    }
+
+    @Test
+    public void getSpeakersPageWithInvalidCursorReturnsBadRequest() throws Exception
+    {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/v1/speakers")
+                        .param("cursor", "not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportSpeakersAsNdjson() throws Exception
+    {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/v1/speakers/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"speaker_id\":1,")));
+    }
+
     @Test
     public void getSpeakerById() throws Exception
     {
@@ -45,6 +82,40 @@ public class TestSpeakerRestController {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.speaker_id").value(1));
     }
 
+    @Test
+    public void getSpeakerByIdWithMatchingETagReturnsNotModified() throws Exception
+    {
+        String etag = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/v1/speakers/{id}", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/v1/speakers/{id}", 1)
+                        .header("If-None-Match", etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void updateSpeakerWithStaleETagReturnsPreconditionFailed() throws Exception
+    {
+        Speaker speaker = new Speaker();
+        speaker.setFirst_name("Stale");
+        speaker.setLast_name("Update");
+        speaker.setCompany("Company");
+        speaker.setTitle("Tester");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/v1/speakers/{id}", 1)
+                        .header("If-Match", "\"-1\"")
+                        .content(new ObjectMapper().writeValueAsString(speaker))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     public void createSpeaker() throws Exception
     {
@@ -66,6 +137,23 @@ public class TestSpeakerRestController {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.speaker_id").exists());
     }
 
+    @Test
+    public void createSpeakersBatchReturnsStatusPerItem() throws Exception
+    {
+        String ndjson = "{\"first_name\":\"Batch\",\"last_name\":\"One\",\"title\":\"Tester\",\"company\":\"Company\"}\n"
+                + "{\"first_name\":\"B\"}\n";
+
+        mockMvc.perform( MockMvcRequestBuilders
+                        .post("/api/v1/speakers:batch")
+                        .content(ndjson)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(201))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value(400));
+    }
+
     @Test
     public void getSpeakerByIdThrowsNotFoundException() throws Exception
     {
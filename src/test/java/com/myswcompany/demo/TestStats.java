@@ -0,0 +1,81 @@
+package com.myswcompany.demo;
+
+import com.myswcompany.demo.models.Stats;
+import com.myswcompany.demo.services.StatsAggregates;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static com.myswcompany.demo.TestRequests.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestStats {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatsAggregates statsAggregates;
+
+    private static String speaker(String firstName, String company)
+    {
+        return "{\"first_name\":\"" + firstName + "\",\"last_name\":\"Stats\",\"title\":\"Developer\",\"company\":\"" + company + "\"}";
+    }
+
+    @Test
+    public void countersFollowTheWritesAndMatchARebuild() throws Exception
+    {
+        // other test classes of the same context share the database, everything is compared with the figures before
+        Stats before = statsAggregates.stats();
+
+        long anna = create(mockMvc, "/api/v1/speakers", speaker("Anna", "Statsco"));
+        long ben = create(mockMvc, "/api/v1/speakers", speaker("Ben", "Statsco"));
+        long session = create(mockMvc, "/api/v1/sessions", "{\"session_name\":\"Counting\",\"session_description\":\"Stats\"," +
+                "\"session_length\":40,\"speakers\":[{\"speaker_id\":" + anna + "},{\"speaker_id\":" + ben + "}]}");
+        create(mockMvc, "/api/v1/sessions", "{\"session_name\":\"Counting more\",\"session_description\":\"Stats\"," +
+                "\"session_length\":20,\"speakers\":[{\"speaker_id\":" + anna + "}]}");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.speakers").value(before.speakers() + 2))
+                .andExpect(jsonPath("$.speakersPerCompany.Statsco").value(2))
+                .andExpect(jsonPath("$.sessions").value(before.sessions() + 2))
+                .andExpect(jsonPath("$.sessionsPerSpeaker['" + anna + "']").value(2))
+                .andExpect(jsonPath("$.sessionsPerSpeaker['" + ben + "']").value(1))
+                .andExpect(jsonPath("$.totalSessionLength").value(before.totalSessionLength() + 60));
+
+        // a company change moves the speaker, unlinking and deleting take the session out of the counts
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", ben).contentType(MediaType.APPLICATION_JSON)
+                        .content(speaker("Ben", "Otherstats")))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/sessions/{id}/speakers", session)
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + ben + "]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/sessions/{id}", session)).andExpect(status().isOk());
+
+        Stats after = statsAggregates.stats();
+        assertThat(after.speakersPerCompany()).containsEntry("Statsco", 1L).containsEntry("Otherstats", 1L);
+        assertThat(after.sessionsPerSpeaker()).containsEntry(anna, 1).containsEntry(ben, 0);
+        assertThat(after.sessions()).isEqualTo(before.sessions() + 1);
+        assertThat(after.totalSessionLength()).isEqualTo(before.totalSessionLength() + 20);
+
+        // a speaker without sessions goes away completely
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/speakers/{id}", ben)).andExpect(status().isOk());
+        assertThat(statsAggregates.stats().speakersPerCompany()).doesNotContainKey("Otherstats");
+        assertThat(statsAggregates.stats().sessionsPerSpeaker()).doesNotContainKey(ben);
+
+        // the incrementally kept counters are what a rebuild from the tables gives
+        Stats incremental = statsAggregates.stats();
+        statsAggregates.rebuild();
+        assertThat(statsAggregates.stats()).isEqualTo(incremental);
+    }
+}
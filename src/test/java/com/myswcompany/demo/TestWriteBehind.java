@@ -0,0 +1,202 @@
+package com.myswcompany.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myswcompany.demo.services.SpeakerWriteBehind;
+import com.myswcompany.demo.services.UpdateJournal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.myswcompany.demo.TestRequests.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// flushes are triggered by the tests
+@SpringBootTest(properties = "app.write-behind.flush-interval=1h")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class TestWriteBehind {
+
+    private static final String SPEAKER = "{\"first_name\":\"Async\",\"last_name\":\"Writer\",\"title\":\"%s\"," +
+            "\"company\":\"Later Oy\",\"speaker_bio\":\"Written eventually.\"}";
+    private static final MediaType JSON_PATCH = MediaType.parseMediaType("application/json-patch+json");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SpeakerWriteBehind writeBehind;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void asyncUpdatesAreCoalescedIntoOneWrite() throws Exception
+    {
+        long id = createSpeaker();
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", id))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Architect")))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"));
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .contentType(JSON_PATCH).content("[{\"op\":\"replace\",\"path\":\"/company\",\"value\":\"Queued Oy\"}]"))
+                .andExpect(status().isAccepted());
+        // the patch applies on top of the queued PUT
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .contentType(JSON_PATCH).content("[{\"op\":\"test\",\"path\":\"/title\",\"value\":\"Architect\"}," +
+                                "{\"op\":\"replace\",\"path\":\"/first_name\",\"value\":\"Batched\"}]"))
+                .andExpect(status().isAccepted());
+
+        // nothing written yet
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", id))
+                .andExpect(jsonPath("$.title").value("Developer"))
+                .andExpect(header().string("ETag", etag));
+        assertThat(writeBehind.pendingSpeakers()).isEqualTo(1);
+
+        assertThat(writeBehind.flush()).isEqualTo(1);
+        assertThat(writeBehind.pendingSpeakers()).isZero();
+
+        String written = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", id))
+                .andExpect(jsonPath("$.first_name").value("Batched"))
+                .andExpect(jsonPath("$.title").value("Architect"))
+                .andExpect(jsonPath("$.company").value("Queued Oy"))
+                .andReturn().getResponse().getHeader("ETag");
+        // three updates, one new version
+        assertThat(version(written)).isEqualTo(version(etag) + 1);
+    }
+
+    @Test
+    public void invalidAsyncUpdatesAreRejectedUpFront() throws Exception
+    {
+        long id = createSpeaker();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .contentType(JSON_PATCH).content("[{\"op\":\"replace\",\"path\":\"/first_name\",\"value\":\"\"}]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .header("If-Match", "\"12345\"")
+                        .contentType(JSON_PATCH).content("[{\"op\":\"replace\",\"path\":\"/first_name\",\"value\":\"Late\"}]"))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(writeBehind.pendingSpeakers()).isZero();
+
+        // a conditional update isn't deferred: of two clients holding the same ETag only the first one wins
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", id))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .header("If-Match", etag)
+                        .contentType(JSON_PATCH).content("[{\"op\":\"replace\",\"path\":\"/first_name\",\"value\":\"First\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Preference-Applied"));
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Second")))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(writeBehind.pendingSpeakers()).isZero();
+
+        // creating a speaker isn't deferred
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", 876543210L).header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Developer")))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void onlySpeakersThatChangeAreWritten() throws Exception
+    {
+        long deleted = createSpeaker();
+        long overtaken = createSpeaker();
+        long changed = createSpeaker();
+        for (long id : new long[] {deleted, overtaken, changed}) {
+            mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                            .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Architect")))
+                    .andExpect(status().isAccepted());
+        }
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/speakers/{id}", deleted)).andExpect(status().isOk());
+        // a synchronous update sets the same values before the queue is written
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", overtaken)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Architect")))
+                .andExpect(status().isOk());
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", overtaken))
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertThat(writeBehind.flush()).isEqualTo(1);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", changed))
+                .andExpect(jsonPath("$.title").value("Architect"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", overtaken))
+                .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    public void synchronousUpdatesMadeAfterAQueuedOneStay() throws Exception
+    {
+        long id = createSpeaker();
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .contentType(JSON_PATCH).content("[{\"op\":\"replace\",\"path\":\"/company\",\"value\":\"Queued Oy\"}," +
+                                "{\"op\":\"replace\",\"path\":\"/speaker_bio\",\"value\":\"Queued bio.\"}]"))
+                .andExpect(status().isAccepted());
+        // written right away, after the queued patch
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/speakers/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON).content(SPEAKER.formatted("Synced")
+                                .replace("Later Oy", "Sync Oy")))
+                .andExpect(status().isOk());
+        // a later async update builds on the synchronous one
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/speakers/{id}", id).header("Prefer", "respond-async")
+                        .contentType(JSON_PATCH).content("[{\"op\":\"replace\",\"path\":\"/first_name\",\"value\":\"Afterwards\"}]"))
+                .andExpect(status().isAccepted());
+
+        assertThat(writeBehind.flush()).isEqualTo(1);
+        // the PUT's values survive where it changed the queued fields, the rest of the queue is written
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/speakers/{id}", id))
+                .andExpect(jsonPath("$.title").value("Synced"))
+                .andExpect(jsonPath("$.company").value("Sync Oy"))
+                .andExpect(jsonPath("$.speaker_bio").value("Queued bio."))
+                .andExpect(jsonPath("$.first_name").value("Afterwards"));
+    }
+
+    @Test
+    public void journalIsReplayedUpToTheLastAppliedEntry() throws Exception
+    {
+        Path path = Files.createTempDirectory("write-behind").resolve("speaker-updates.journal");
+        try (UpdateJournal journal = new UpdateJournal(path, objectMapper)) {
+            assertThat(journal.replay()).isEmpty();
+            long first = journal.append(1L, Map.of("title", "First"), Map.of("title", "Zeroth"));
+            journal.append(2L, Map.of("title", "Second"), Map.of());
+            journal.applied(first);
+            journal.append(3L, Map.of("company", "Third"), Map.of("company", "Second"));
+        }
+        // a write cut short by a crash
+        Files.writeString(path, Files.readString(path) + "{\"seq\":4,\"speaker_id\":4,\"fie");
+
+        try (UpdateJournal journal = new UpdateJournal(path, objectMapper)) {
+            assertThat(journal.replay()).extracting(UpdateJournal.Entry::speakerId).containsExactly(2L, 3L);
+            // appended after the torn line, with a number not used before
+            assertThat(journal.append(5L, Map.of("title", "Fifth"), Map.of("title", "Fourth"))).isGreaterThan(3L);
+        }
+        try (UpdateJournal journal = new UpdateJournal(path, objectMapper)) {
+            assertThat(journal.replay()).extracting(UpdateJournal.Entry::speakerId).containsExactly(2L, 3L, 5L);
+            assertThat(journal.replay()).extracting(UpdateJournal.Entry::base)
+                    .containsExactly(Map.of(), Map.of("company", "Second"), Map.of("title", "Fourth"));
+        }
+    }
+
+    private static long version(String etag)
+    {
+        return Long.parseLong(etag.replaceAll("\\D", ""));
+    }
+
+    private long createSpeaker() throws Exception
+    {
+        return create(mockMvc, "/api/v1/speakers", SPEAKER.formatted("Developer"));
+    }
+}
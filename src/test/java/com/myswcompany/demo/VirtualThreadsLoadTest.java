@@ -0,0 +1,138 @@
+package com.myswcompany.demo;
+
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same burst of GET /api/v1/speakers/{id} against the app on platform threads and on virtual threads.
+// Every request blocks for LATENCY_MS (standing in for JDBC / network round trips), so throughput on platform
+// threads is capped at threads.max / latency while the CPU is mostly idle.
+// Not part of the default build: mvn -Pload-test test
+@Tag("load")
+public class VirtualThreadsLoadTest {
+
+    private static final int TOMCAT_THREADS = 20;
+    private static final int CLIENTS = 200;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final long LATENCY_MS = 100;
+    private static final int SPEAKERS = 100;
+
+    @Test
+    public void virtualThreadsServeMoreConcurrentRequests() throws Exception
+    {
+        Result platform = run(false);
+        Result virtual = run(true);
+        System.out.printf("platform threads: %s%nvirtual threads:  %s%n", platform, virtual);
+
+        assertThat(platform.failed()).isZero();
+        assertThat(virtual.failed()).isZero();
+        assertThat(virtual.throughput()).isGreaterThan(platform.throughput() * 1.5);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception
+    {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class, BlockingLatency.class)
+                .profiles("h2")
+                // command line arguments, so they win over application.properties
+                .run("--server.port=0", "--logging.level.root=WARN",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--app.admission.max-concurrent=" + CLIENTS)) {
+            SpeakerRepository speakerRepository = context.getBean(SpeakerRepository.class);
+            List<Speaker> speakers = new ArrayList<>();
+            for (int i = 0; i < SPEAKERS; i++) {
+                Speaker speaker = new Speaker();
+                speaker.setFirst_name("First" + i);
+                speaker.setLast_name("Last" + i);
+                speaker.setTitle("Developer Advocate");
+                speaker.setCompany("Company " + i);
+                speakers.add(speaker);
+            }
+            List<Long> ids = speakerRepository.saveAll(speakers).stream().map(Speaker::getSpeaker_id).toList();
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api/v1/speakers/";
+
+            AtomicInteger ok = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                 ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                // warm up connections, caches and the JIT before measuring
+                load(client, clients, baseUrl, ids, REQUESTS_PER_CLIENT / 5, new AtomicInteger(), new AtomicInteger());
+                long start = System.nanoTime();
+                load(client, clients, baseUrl, ids, REQUESTS_PER_CLIENT, ok, failed);
+                long elapsed = System.nanoTime() - start;
+                return new Result(ok.get(), failed.get(), ok.get() / (elapsed / 1e9));
+            }
+        }
+    }
+
+    private void load(HttpClient client, ExecutorService clients, String baseUrl, List<Long> ids, int requests,
+                      AtomicInteger ok, AtomicInteger failed) throws Exception
+    {
+        List<Future<?>> running = new ArrayList<>(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            int offset = c;
+            running.add(clients.submit(() -> {
+                for (int i = 0; i < requests; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ids.get((offset + i) % ids.size()))).build();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    (response.statusCode() == 200 ? ok : failed).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+    }
+
+    private record Result(int ok, int failed, double throughput) {
+        @Override
+        public String toString() {
+            return String.format("%d ok, %d failed, %.0f requests/s", ok, failed, throughput);
+        }
+    }
+
+    // Registered as an extra source only by this test, so component scanning never picks it up
+    static class BlockingLatency {
+
+        @Bean
+        public WebMvcConfigurer blockingLatencyInterceptor() {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry registry) {
+                    registry.addInterceptor(new HandlerInterceptor() {
+                        @Override
+                        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                                throws InterruptedException {
+                            Thread.sleep(LATENCY_MS);
+                            return true;
+                        }
+                    });
+                }
+            };
+        }
+    }
+}
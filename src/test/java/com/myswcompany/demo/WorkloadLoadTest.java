@@ -0,0 +1,51 @@
+package com.myswcompany.demo;
+
+import com.myswcompany.demo.loadtest.DataGenerator;
+import com.myswcompany.demo.loadtest.LoadReport;
+import com.myswcompany.demo.loadtest.LoadRunner;
+import com.myswcompany.demo.loadtest.SeededData;
+import com.myswcompany.demo.loadtest.WorkloadProfile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// The workload profiles of src/test/resources/load-profiles against the application on a random port with the
+// in-memory database of the "h2" profile, seeded by DataGenerator. Prints throughput and latency percentiles,
+// writes target/load-reports/<profile>.json and fails when a run misses the thresholds of its profile.
+// Not part of the default build: mvn -Pload-test test [-Dload.profile=mixed]
+@Tag("load")
+public class WorkloadLoadTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"read-heavy", "mixed", "write-heavy"})
+    public void profileMeetsItsThresholds(String name) throws Exception
+    {
+        String only = System.getProperty("load.profile");
+        assumeTrue(only == null || only.isBlank() || only.equals(name), "load.profile=" + only);
+
+        WorkloadProfile profile = WorkloadProfile.load(name);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("h2")
+                // command line arguments, so they win over application.properties
+                .run("--server.port=0", "--logging.level.root=WARN",
+                        "--app.rate-limit.enabled=false",
+                        "--app.write-behind.journal=target/load-test-" + name + ".journal")) {
+            SeededData data = DataGenerator.seed(context, profile);
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api/v1";
+
+            LoadReport report = new LoadRunner(profile, data, baseUrl).run();
+            System.out.print(report);
+            report.write(Path.of("target", "load-reports"));
+
+            assertThat(report.violations(profile.thresholds())).as("thresholds of load profile " + name).isEmpty();
+        }
+    }
+}
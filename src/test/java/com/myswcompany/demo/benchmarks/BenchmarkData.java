@@ -0,0 +1,43 @@
+package com.myswcompany.demo.benchmarks;
+
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.Speaker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Test data shared by the benchmarks
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Speaker speaker(int i) {
+        Speaker speaker = new Speaker();
+        speaker.setFirst_name("First" + i);
+        speaker.setLast_name("Last" + i);
+        speaker.setTitle("Developer Advocate");
+        speaker.setCompany("Company " + (i % 50));
+        speaker.setSpeaker_bio("Bio of speaker number " + i + ". ".repeat(20));
+        return speaker;
+    }
+
+    static List<Speaker> speakers(int count) {
+        List<Speaker> speakers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Speaker speaker = speaker(i);
+            speaker.setSpeaker_id((long) i + 1);
+            speakers.add(speaker);
+        }
+        return speakers;
+    }
+
+    static Session session(int i, List<Speaker> speakers) {
+        Session session = new Session();
+        session.setSession_name("Session " + i);
+        session.setSession_description("Description of session " + i + ". ".repeat(20));
+        session.setSession_length(30 + i % 60);
+        session.setSpeakers(new ArrayList<>(speakers));
+        return session;
+    }
+}
@@ -0,0 +1,126 @@
+package com.myswcompany.demo.benchmarks;
+
+import com.myswcompany.demo.DemoApplication;
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.repositories.SessionRepository;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+// End-to-end calls through the DispatcherServlet into SpeakersController / SessionsController,
+// against the in-memory H2 database of the "h2" profile seeded with `speakers` speakers and speakers / 10 sessions.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ControllerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+    @Param({"1000"})
+    private int speakers;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    private Long speakerId;
+    private Long sessionId;
+    private String speakerEtag;
+    private String speakerJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("h2")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+
+        List<Speaker> newSpeakers = new ArrayList<>(speakers);
+        for (int i = 0; i < speakers; i++) {
+            newSpeakers.add(BenchmarkData.speaker(i));
+        }
+        List<Speaker> saved = context.getBean(SpeakerRepository.class).saveAll(newSpeakers);
+
+        List<Session> newSessions = new ArrayList<>();
+        for (int i = 0; i < speakers / 10; i++) {
+            newSessions.add(BenchmarkData.session(i, saved.subList(i * 10, i * 10 + 3)));
+        }
+        sessionId = context.getBean(SessionRepository.class).saveAll(newSessions).get(0).getSession_id();
+
+        speakerId = saved.get(0).getSpeaker_id();
+        speakerJson = "{\"first_name\":\"First0\",\"last_name\":\"Last0\",\"title\":\"Developer Advocate\"," +
+                "\"company\":\"Company 0\",\"speaker_bio\":\"updated\"}";
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        speakerEtag = mockMvc.perform(get("/api/v1/speakers/{id}", speakerId)).andReturn().getResponse().getHeader("ETag");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] listSpeakers() throws Exception {
+        return mockMvc.perform(get("/api/v1/speakers")).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] listSpeakersGzip() throws Exception {
+        return mockMvc.perform(get("/api/v1/speakers").header("Accept-Encoding", "gzip")).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] listSpeakersPage() throws Exception {
+        return mockMvc.perform(get("/api/v1/speakers").param("limit", "50")).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getSpeakerById() throws Exception {
+        return mockMvc.perform(get("/api/v1/speakers/{id}", speakerId)).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public int getSpeakerByIdNotModified() throws Exception {
+        return mockMvc.perform(get("/api/v1/speakers/{id}", speakerId).header("If-None-Match", speakerEtag))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public byte[] putSpeaker() throws Exception {
+        return mockMvc.perform(put("/api/v1/speakers/{id}", speakerId)
+                        .contentType(MediaType.APPLICATION_JSON).content(speakerJson))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] patchSpeaker() throws Exception {
+        return mockMvc.perform(patch("/api/v1/speakers/{id}", speakerId)
+                        .contentType("application/json-patch+json")
+                        .content("[{\"op\":\"replace\",\"path\":\"/title\",\"value\":\"Architect\"}]"))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] listSessions() throws Exception {
+        return mockMvc.perform(get("/api/v1/sessions")).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getSessionById() throws Exception {
+        return mockMvc.perform(get("/api/v1/sessions/{id}", sessionId)).andReturn().getResponse().getContentAsByteArray();
+    }
+}
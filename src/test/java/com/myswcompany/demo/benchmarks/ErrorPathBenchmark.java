@@ -0,0 +1,85 @@
+package com.myswcompany.demo.benchmarks;
+
+import com.myswcompany.demo.DemoApplication;
+import com.myswcompany.demo.filters.JsonBodyPrecheckFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+// Throughput of rejected requests, the 400s and 404s of bots sending invalid bodies and probing ids.
+// "withoutPrecheck" runs the same malformed body through Jackson binding (HttpMessageNotReadableException) for comparison.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ErrorPathBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final String MALFORMED = "{\"first_name\":\"First\",\"last_name\":\"Last\",\"title\":";
+    private static final String INVALID = "{\"first_name\":\"X\",\"last_name\":\"Last\",\"title\":\"Developer\",\"company\":\"Company\"}";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private MockMvc withoutPrecheck;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("h2")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+
+        // MockMvc doesn't pick up servlet filters on its own
+        FilterRegistrationBean<JsonBodyPrecheckFilter> precheck = context.<FilterRegistrationBean<JsonBodyPrecheckFilter>>getBeanProvider(
+                ResolvableType.forClassWithGenerics(FilterRegistrationBean.class, JsonBodyPrecheckFilter.class)).getObject();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(precheck.getFilter()).build();
+        withoutPrecheck = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int malformedSpeaker() throws Exception {
+        return mockMvc.perform(post("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON).content(MALFORMED))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int malformedSpeakerWithoutPrecheck() throws Exception {
+        return withoutPrecheck.perform(post("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON).content(MALFORMED))
+                .andReturn().getResponse().getStatus();
+    }
+
+    // bound, then 4 violations
+    @Benchmark
+    public byte[] invalidSpeaker() throws Exception {
+        return mockMvc.perform(post("/api/v1/speakers").contentType(MediaType.APPLICATION_JSON).content(INVALID))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] unknownSpeaker() throws Exception {
+        return mockMvc.perform(get("/api/v1/speakers/{id}", 987654321L)).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] unknownSession() throws Exception {
+        return mockMvc.perform(get("/api/v1/sessions/{id}", 987654321L)).andReturn().getResponse().getContentAsByteArray();
+    }
+}
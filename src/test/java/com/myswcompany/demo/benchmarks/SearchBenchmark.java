@@ -0,0 +1,60 @@
+package com.myswcompany.demo.benchmarks;
+
+import com.myswcompany.demo.models.SearchHit;
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.services.SearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/v1/search against an index of `speakers` speakers and speakers / 10 sessions.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=SearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"10000"})
+    private int speakers;
+
+    private final SearchIndex index = new SearchIndex();
+
+    @Setup
+    public void setUp() {
+        List<Speaker> all = BenchmarkData.speakers(speakers);
+        all.forEach(index::put);
+        for (int i = 0; i < speakers / 10; i++) {
+            Session session = BenchmarkData.session(i, all.subList(i * 10, i * 10 + 3));
+            session.setSession_id((long) i + 1);
+            index.put(session);
+        }
+    }
+
+    // one rare term: a single posting list
+    @Benchmark
+    public List<SearchHit> term() {
+        return index.search("first4711", 20);
+    }
+
+    // a common term matching a company in every 50th speaker
+    @Benchmark
+    public List<SearchHit> commonTerm() {
+        return index.search("company 7", 20);
+    }
+
+    // "sess" expands to every term starting with it
+    @Benchmark
+    public List<SearchHit> prefix() {
+        return index.search("sess", 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> twoWords() {
+        return index.search("developer last12", 20);
+    }
+}
@@ -0,0 +1,52 @@
+package com.myswcompany.demo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.Speaker;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of the list endpoint bodies (GET /api/v1/speakers, GET /api/v1/sessions).
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=SerializationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    // configured like the ObjectMapper of the message converters
+    private final ObjectWriter writer = Jackson2ObjectMapperBuilder.json().build().writer();
+
+    private List<Speaker> speakers;
+    private List<Session> sessions;
+
+    @Setup
+    public void setUp() {
+        speakers = BenchmarkData.speakers(size);
+        sessions = new ArrayList<>();
+        for (int i = 0; i < size / 10; i++) {
+            sessions.add(BenchmarkData.session(i, speakers.subList(i * 10, i * 10 + 3)));
+        }
+    }
+
+    @Benchmark
+    public byte[] speakerList() throws Exception {
+        return writer.writeValueAsBytes(speakers);
+    }
+
+    // size / 10 sessions with 3 speakers each
+    @Benchmark
+    public byte[] sessionList() throws Exception {
+        return writer.writeValueAsBytes(sessions);
+    }
+}
@@ -0,0 +1,62 @@
+package com.myswcompany.demo.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.myswcompany.demo.models.PatchOperation;
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.services.SpeakerPatchApplier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// PATCH /api/v1/speakers/{id}: in-place patching vs the generic JsonNode round trip.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=SpeakerPatchBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpeakerPatchBenchmark {
+
+    private static final String PATCH = "[" +
+            "{\"op\":\"test\",\"path\":\"/company\",\"value\":\"Company\"}," +
+            "{\"op\":\"replace\",\"path\":\"/first_name\",\"value\":\"moi vaan\"}," +
+            "{\"op\":\"replace\",\"path\":\"/title\",\"value\":\"Architect\"}" +
+            "]";
+
+    private final SpeakerPatchApplier applier = new SpeakerPatchApplier();
+
+    private List<PatchOperation> operations;
+    private JsonPatch jsonPatch;
+    private Speaker speaker;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        operations = objectMapper.readValue(PATCH, new TypeReference<>() {});
+        jsonPatch = objectMapper.readValue(PATCH, JsonPatch.class);
+
+        // the patch is idempotent, the same speaker can be patched over and over
+        speaker = new Speaker();
+        speaker.setSpeaker_id(44L);
+        speaker.setFirst_name("Aku");
+        speaker.setLast_name("Ankka");
+        speaker.setTitle("Suunnittelija");
+        speaker.setCompany("Company");
+        speaker.setSpeaker_bio("Bio of a speaker. ".repeat(40));
+    }
+
+    @Benchmark
+    public Speaker inPlace() throws Exception {
+        applier.applyInPlace(operations, speaker);
+        return speaker;
+    }
+
+    @Benchmark
+    public Speaker generic() throws Exception {
+        return applier.applyGeneric(jsonPatch, speaker);
+    }
+}
@@ -0,0 +1,63 @@
+package com.myswcompany.demo.benchmarks;
+
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.Speaker;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Bean validation of request bodies (@Valid on POST/PUT).
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ValidationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    private Speaker validSpeaker;
+    private Speaker invalidSpeaker;
+    private Session validSession;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        validSpeaker = BenchmarkData.speaker(1);
+        invalidSpeaker = new Speaker();
+        invalidSpeaker.setFirst_name("X");
+        validSession = BenchmarkData.session(1, List.of());
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Speaker>> validSpeaker() {
+        return validator.validate(validSpeaker);
+    }
+
+    // 4 violations
+    @Benchmark
+    public Set<ConstraintViolation<Speaker>> invalidSpeaker() {
+        return validator.validate(invalidSpeaker);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Session>> validSession() {
+        return validator.validate(validSession);
+    }
+}
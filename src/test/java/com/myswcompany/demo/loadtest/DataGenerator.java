@@ -0,0 +1,96 @@
+package com.myswcompany.demo.loadtest;
+
+import com.myswcompany.demo.models.Session;
+import com.myswcompany.demo.models.Speaker;
+import com.myswcompany.demo.repositories.SessionRepository;
+import com.myswcompany.demo.repositories.SpeakerRepository;
+import com.myswcompany.demo.services.SearchIndex;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Seeds the speakers, sessions and session speakers of a WorkloadProfile, the same rows for the same seed.
+// Rows go in through the repositories (the :batch endpoints would be slower and aren't what is measured),
+// the search index is rebuilt afterwards.
+public final class DataGenerator {
+
+    private static final String[] FIRST_NAMES = {"Anna", "Ben", "Carla", "Dmitri", "Eeva", "Farid", "Greta", "Hiro",
+            "Ines", "Jonas", "Kaisa", "Liam", "Mira", "Noah", "Olga", "Pekka"};
+    private static final String[] LAST_NAMES = {"Virtanen", "Smith", "Rossi", "Tanaka", "Novak", "Garcia", "Berg",
+            "Kowalski", "Mäkinen", "Okafor", "Silva", "Larsen"};
+    private static final String[] TITLES = {"Developer", "Architect", "Developer Advocate", "Engineering Manager",
+            "Data Engineer", "Security Researcher", "CTO"};
+    private static final String[] COMPANIES = {"Nordic Code", "Cloudworks", "Streamline", "Datahaus", "Kubeforge",
+            "Reactive Labs", "Helsinki Software", "Quarkus Works"};
+    private static final String[] TOPICS = {"Spring", "Kubernetes", "Kafka", "Postgres", "Observability", "Security",
+            "Testing", "Java", "GraalVM", "Reactive"};
+
+    private DataGenerator() {
+    }
+
+    public static SeededData seed(ApplicationContext context, WorkloadProfile profile) {
+        Random random = new Random(profile.seed());
+
+        List<Speaker> speakers = new ArrayList<>(profile.speakers());
+        for (int i = 0; i < profile.speakers(); i++) {
+            speakers.add(speaker(random));
+        }
+        List<Speaker> saved = context.getBean(SpeakerRepository.class).saveAll(speakers);
+
+        List<Session> sessions = new ArrayList<>(profile.sessions());
+        for (int i = 0; i < profile.sessions(); i++) {
+            Session session = new Session();
+            String topic = pick(random, TOPICS);
+            session.setSession_name(topic + " in practice, part " + (i + 1));
+            session.setSession_description("What we learned running " + topic + " in production. ".repeat(3));
+            session.setSession_length(30 + 15 * random.nextInt(4));
+            List<Speaker> sessionSpeakers = new ArrayList<>(profile.speakersPerSession());
+            for (int s = 0; s < profile.speakersPerSession(); s++) {
+                Speaker speaker = saved.get(random.nextInt(saved.size()));
+                if (!sessionSpeakers.contains(speaker)) {
+                    sessionSpeakers.add(speaker);
+                }
+            }
+            session.setSpeakers(sessionSpeakers);
+            sessions.add(session);
+        }
+        List<Session> savedSessions = context.getBean(SessionRepository.class).saveAll(sessions);
+
+        context.getBean(SearchIndex.class).rebuild();
+        return new SeededData(saved.stream().map(Speaker::getSpeaker_id).toList(),
+                savedSessions.stream().map(Session::getSession_id).toList());
+    }
+
+    static Speaker speaker(Random random) {
+        Speaker speaker = new Speaker();
+        speaker.setFirst_name(pick(random, FIRST_NAMES));
+        speaker.setLast_name(pick(random, LAST_NAMES));
+        speaker.setTitle(pick(random, TITLES));
+        speaker.setCompany(company(random));
+        speaker.setSpeaker_bio("Works on " + pick(random, TOPICS) + " and " + pick(random, TOPICS) + ".");
+        return speaker;
+    }
+
+    static String speakerJson(Random random) {
+        Speaker speaker = speaker(random);
+        return "{\"first_name\":\"" + speaker.getFirst_name() + "\",\"last_name\":\"" + speaker.getLast_name() +
+                "\",\"title\":\"" + speaker.getTitle() + "\",\"company\":\"" + speaker.getCompany() +
+                "\",\"speaker_bio\":\"" + speaker.getSpeaker_bio() + "\"}";
+    }
+
+    static String company(Random random) {
+        return pick(random, COMPANIES);
+    }
+
+    // a word that occurs in the seeded data, sometimes only its start (prefix match)
+    static String searchTerm(Random random) {
+        String topic = pick(random, TOPICS).toLowerCase();
+        return random.nextBoolean() ? topic : topic.substring(0, 3);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
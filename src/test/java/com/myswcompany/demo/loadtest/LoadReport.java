@@ -0,0 +1,99 @@
+package com.myswcompany.demo.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Outcome of a measured run: overall throughput, and per operation the number of requests, errors, conflicts
+// and latency percentiles (nearest rank, exact: every latency is kept).
+public record LoadReport(String profile, double seconds, List<OperationStats> operations, OperationStats total) {
+
+    public record OperationStats(String operation, int requests, int errors, int conflicts,
+                                 double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+
+        static OperationStats of(String operation, long[] latencyNanos, int errors, int conflicts) {
+            long[] sorted = latencyNanos.clone();
+            Arrays.sort(sorted);
+            return new OperationStats(operation, sorted.length, errors, conflicts,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1e6;
+        }
+    }
+
+    public double throughput() {
+        return total.requests() / seconds;
+    }
+
+    public double errorRate() {
+        return total.requests() == 0 ? 0 : (double) total.errors() / total.requests();
+    }
+
+    // Threshold violations of the profile, empty when the run passed
+    public List<String> violations(WorkloadProfile.Thresholds thresholds) {
+        List<String> violations = new ArrayList<>();
+        if (throughput() < thresholds.minThroughput()) {
+            violations.add(String.format(Locale.ROOT, "throughput %.1f req/s < %.1f", throughput(), thresholds.minThroughput()));
+        }
+        if (total.p99Millis() > thresholds.maxP99Millis()) {
+            violations.add(String.format(Locale.ROOT, "p99 %.1f ms > %d ms", total.p99Millis(), thresholds.maxP99Millis()));
+        }
+        if (errorRate() > thresholds.maxErrorRate()) {
+            violations.add(String.format(Locale.ROOT, "error rate %.4f > %.4f", errorRate(), thresholds.maxErrorRate()));
+        }
+        return violations;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                "load profile %s: %d requests in %.1f s, %.1f req/s, %d errors, %d conflicts%n",
+                profile, total.requests(), seconds, throughput(), total.errors(), total.conflicts()));
+        table.append(String.format(Locale.ROOT, "%-18s %8s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "conflicts", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (OperationStats stats : operations) {
+            table.append(row(stats));
+        }
+        return table.append(row(total)).toString();
+    }
+
+    private static String row(OperationStats stats) {
+        return String.format(Locale.ROOT, "%-18s %8d %7d %9d %9.1f %9.1f %9.1f %9.1f%n", stats.operation(), stats.requests(),
+                stats.errors(), stats.conflicts(), stats.p50Millis(), stats.p95Millis(), stats.p99Millis(), stats.maxMillis());
+    }
+
+    // target/load-reports/<profile>.json, kept by CI to compare runs
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(profile + ".json");
+        String operationsJson = operations.stream().map(LoadReport::json).collect(Collectors.joining(",\n    ", "[\n    ", "\n  ]"));
+        Files.writeString(file, String.format(Locale.ROOT,
+                "{%n  \"profile\": \"%s\",%n  \"seconds\": %.3f,%n  \"throughput\": %.2f,%n  \"total\": %s,%n  \"operations\": %s%n}%n",
+                profile, seconds, throughput(), json(total), operationsJson));
+        return file;
+    }
+
+    private static String json(OperationStats stats) {
+        return String.format(Locale.ROOT, "{\"operation\": \"%s\", \"requests\": %d, \"errors\": %d, \"conflicts\": %d, " +
+                        "\"p50_ms\": %.3f, \"p95_ms\": %.3f, \"p99_ms\": %.3f, \"max_ms\": %.3f}",
+                stats.operation(), stats.requests(), stats.errors(), stats.conflicts(),
+                stats.p50Millis(), stats.p95Millis(), stats.p99Millis(), stats.maxMillis());
+    }
+
+    static LoadReport of(String profile, double seconds, Map<Operation, OperationStats> byOperation, OperationStats total) {
+        return new LoadReport(profile, seconds, List.copyOf(byOperation.values()), total);
+    }
+}
@@ -0,0 +1,140 @@
+package com.myswcompany.demo.loadtest;
+
+import com.myswcompany.demo.loadtest.LoadReport.OperationStats;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs a WorkloadProfile against a running application: profile.clients() closed-loop clients (each sends
+// its next request when the previous answer is in), every client on its own virtual thread with its own
+// Random derived from the profile seed, picking operations by their weights. A warm-up round is run and
+// thrown away first (connections, caches, JIT).
+public class LoadRunner {
+
+    private final WorkloadProfile profile;
+    private final SeededData data;
+    private final String baseUrl;
+
+    // baseUrl: http://localhost:<port>/api/v1
+    public LoadRunner(WorkloadProfile profile, SeededData data, String baseUrl) {
+        this.profile = profile;
+        this.data = data;
+        this.baseUrl = baseUrl;
+    }
+
+    public LoadReport run() throws Exception {
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            round(client, profile.warmupRequestsPerClient(), 1);
+            long start = System.nanoTime();
+            List<ClientLog> logs = round(client, profile.requestsPerClient(), 2);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return report(logs, seconds);
+        }
+    }
+
+    private List<ClientLog> round(HttpClient client, int requests, int round) throws Exception {
+        Operation[] choices = choices();
+        List<Future<ClientLog>> running = new ArrayList<>(profile.clients());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < profile.clients(); c++) {
+                Random random = new Random(profile.seed() * 31 + round * 1_000_003L + c);
+                running.add(clients.submit(() -> {
+                    ClientLog log = new ClientLog(requests);
+                    for (int i = 0; i < requests; i++) {
+                        Operation operation = choices[random.nextInt(choices.length)];
+                        HttpRequest request = operation.request(baseUrl, data, random);
+                        long sent = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException ex) {
+                            status = -1;
+                        }
+                        log.add(operation, System.nanoTime() - sent, status);
+                    }
+                    return log;
+                }));
+            }
+        }
+        List<ClientLog> logs = new ArrayList<>(running.size());
+        for (Future<ClientLog> future : running) {
+            logs.add(future.get());
+        }
+        return logs;
+    }
+
+    // every operation repeated by its weight, a uniform pick from it is a weighted pick
+    private Operation[] choices() {
+        List<Operation> choices = new ArrayList<>();
+        profile.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                choices.add(operation);
+            }
+        });
+        return choices.toArray(Operation[]::new);
+    }
+
+    private LoadReport report(List<ClientLog> logs, double seconds) {
+        Map<Operation, OperationStats> byOperation = new EnumMap<>(Operation.class);
+        long[] all = logs.stream().flatMapToLong(log -> Arrays.stream(log.latencies, 0, log.size)).toArray();
+        int errors = 0;
+        int conflicts = 0;
+        for (Operation operation : profile.mix().keySet()) {
+            List<Long> latencies = new ArrayList<>();
+            int operationErrors = 0;
+            int operationConflicts = 0;
+            for (ClientLog log : logs) {
+                for (int i = 0; i < log.size; i++) {
+                    if (log.operations[i] != operation) {
+                        continue;
+                    }
+                    latencies.add(log.latencies[i]);
+                    int status = log.statuses[i];
+                    if (operation.conflict(status)) {
+                        operationConflicts++;
+                    } else if (status < 200 || status >= 400) {
+                        operationErrors++;
+                    }
+                }
+            }
+            errors += operationErrors;
+            conflicts += operationConflicts;
+            byOperation.put(operation, OperationStats.of(operation.key(),
+                    latencies.stream().mapToLong(Long::longValue).toArray(), operationErrors, operationConflicts));
+        }
+        return LoadReport.of(profile.name(), seconds, byOperation, OperationStats.of("total", all, errors, conflicts));
+    }
+
+    // What one client sent, in order
+    private static class ClientLog {
+
+        final Operation[] operations;
+        final long[] latencies;
+        final int[] statuses;
+        int size;
+
+        ClientLog(int requests) {
+            operations = new Operation[requests];
+            latencies = new long[requests];
+            statuses = new int[requests];
+        }
+
+        void add(Operation operation, long latencyNanos, int status) {
+            operations[size] = operation;
+            latencies[size] = latencyNanos;
+            statuses[size] = status;
+            size++;
+        }
+    }
+}
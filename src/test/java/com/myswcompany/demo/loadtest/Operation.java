@@ -0,0 +1,110 @@
+package com.myswcompany.demo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.util.Locale;
+import java.util.Random;
+
+// The requests a workload is made of, each against the real HTTP endpoints.
+// Updates are sent without If-Match, so 409 (another client updated the same speaker first, twice) is an
+// expected outcome of the write operations, counted as a conflict rather than an error.
+public enum Operation {
+
+    GET_SPEAKER(false) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return get(baseUrl + "/speakers/" + data.speaker(random));
+        }
+    },
+    LIST_SPEAKERS(false) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return get(baseUrl + "/speakers?limit=50");
+        }
+    },
+    GET_SESSION(false) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return get(baseUrl + "/sessions/" + data.session(random));
+        }
+    },
+    LIST_SESSIONS(false) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return get(baseUrl + "/sessions?limit=50");
+        }
+    },
+    SPEAKER_SESSIONS(false) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return get(baseUrl + "/speakers/" + data.speaker(random) + "/sessions");
+        }
+    },
+    SEARCH(false) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return get(baseUrl + "/search?q=" + DataGenerator.searchTerm(random));
+        }
+    },
+    CREATE_SPEAKER(true) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return json("POST", baseUrl + "/speakers", DataGenerator.speakerJson(random));
+        }
+    },
+    PUT_SPEAKER(true) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return json("PUT", baseUrl + "/speakers/" + data.speaker(random), DataGenerator.speakerJson(random));
+        }
+    },
+    PATCH_SPEAKER(true) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            String patch = "[{\"op\":\"replace\",\"path\":\"/company\",\"value\":\"" + DataGenerator.company(random) + "\"}]";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/speakers/" + data.speaker(random)))
+                    .header("Content-Type", "application/json-patch+json")
+                    .method("PATCH", BodyPublishers.ofString(patch))
+                    .build();
+        }
+    },
+    LINK_SPEAKER(true) {
+        @Override
+        HttpRequest request(String baseUrl, SeededData data, Random random) {
+            return json("POST", baseUrl + "/sessions/" + data.session(random) + "/speakers", "[" + data.speaker(random) + "]");
+        }
+    };
+
+    private final boolean write;
+
+    Operation(boolean write) {
+        this.write = write;
+    }
+
+    abstract HttpRequest request(String baseUrl, SeededData data, Random random);
+
+    public boolean write() {
+        return write;
+    }
+
+    // name in the profiles: mix.get-speaker=...
+    public String key() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    boolean conflict(int status) {
+        return write && status == 409;
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).build();
+    }
+
+    private static HttpRequest json(String method, String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(method, BodyPublishers.ofString(body))
+                .build();
+    }
+}
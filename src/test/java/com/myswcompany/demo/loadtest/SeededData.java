@@ -0,0 +1,16 @@
+package com.myswcompany.demo.loadtest;
+
+import java.util.List;
+import java.util.Random;
+
+// Ids of the rows DataGenerator created
+public record SeededData(List<Long> speakerIds, List<Long> sessionIds) {
+
+    long speaker(Random random) {
+        return speakerIds.get(random.nextInt(speakerIds.size()));
+    }
+
+    long session(Random random) {
+        return sessionIds.get(random.nextInt(sessionIds.size()));
+    }
+}
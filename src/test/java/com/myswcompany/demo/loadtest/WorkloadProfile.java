@@ -0,0 +1,55 @@
+package com.myswcompany.demo.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+// A reproducible workload, read from src/test/resources/load-profiles/<name>.properties:
+// how much data to seed, how many closed-loop clients send how many requests, the operation mix
+// (relative weights) and the thresholds a run has to meet. The seed fixes both the data and every
+// client's sequence of requests.
+public record WorkloadProfile(String name, long seed, int speakers, int sessions, int speakersPerSession,
+                              int clients, int warmupRequestsPerClient, int requestsPerClient,
+                              Map<Operation, Integer> mix, Thresholds thresholds) {
+
+    public record Thresholds(double minThroughput, long maxP99Millis, double maxErrorRate) {
+    }
+
+    public static WorkloadProfile load(String name) {
+        Properties properties = new Properties();
+        try (InputStream in = WorkloadProfile.class.getResourceAsStream("/load-profiles/" + name + ".properties")) {
+            if (in == null) {
+                throw new IllegalArgumentException("No load profile " + name);
+            }
+            properties.load(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            int weight = Integer.parseInt(properties.getProperty("mix." + operation.key(), "0"));
+            if (weight > 0) {
+                mix.put(operation, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Load profile " + name + " has no mix.* weights");
+        }
+        return new WorkloadProfile(name,
+                Long.parseLong(properties.getProperty("seed")),
+                Integer.parseInt(properties.getProperty("speakers")),
+                Integer.parseInt(properties.getProperty("sessions")),
+                Integer.parseInt(properties.getProperty("speakers-per-session")),
+                Integer.parseInt(properties.getProperty("clients")),
+                Integer.parseInt(properties.getProperty("warmup-requests-per-client")),
+                Integer.parseInt(properties.getProperty("requests-per-client")),
+                mix,
+                new Thresholds(Double.parseDouble(properties.getProperty("threshold.min-throughput")),
+                        Long.parseLong(properties.getProperty("threshold.max-p99-ms")),
+                        Double.parseDouble(properties.getProperty("threshold.max-error-rate"))));
+    }
+}